@@ -0,0 +1,76 @@
+#!/usr/bin/env bash
+# Compara o tempo de inicialização (até o /api/files/health responder) nos modos disponíveis:
+#   default  jar normal
+#   lazy     perfil fast-startup (lazy-initialization)
+#   aot      lazy + código AOT (-Dspring.aot.enabled=true)
+#   cds      lazy + AOT + arquivo AppCDS da execução de treino
+#   native   executável GraalVM (se target/file-monitor existir)
+#
+# Pré-requisito: mvn -B package -Pfast-startup   (e, para o nativo, mvn -B -Pnative native:compile)
+# Uso: scripts/startup-benchmark.sh [execuções por modo, padrão 5]
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18082}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+DIR="$ROOT/target/fast-startup"
+JAR="file-monitor-0.0.1-SNAPSHOT.jar"
+NATIVE="$ROOT/target/file-monitor"
+WORK=$(mktemp -d)
+HEALTH="http://localhost:$PORT/api-file-monitor/api/files/health"
+APP_ARGS=(--server.port="$PORT" --file.monitor.path_raiz="$WORK/in" --spring.jpa.show-sql=false)
+
+if [ ! -f "$DIR/$JAR" ]; then
+    echo "Não encontrado: $DIR/$JAR (rode mvn -B package -Pfast-startup)" >&2
+    exit 1
+fi
+trap 'rm -rf "$WORK"' EXIT
+
+now_ms() { date +%s%3N; }
+
+# Sobe a aplicação, mede até o health responder e derruba; imprime os milissegundos
+measure() {
+    local start pid elapsed
+    start=$(now_ms)
+    (cd "$DIR" && exec "$@" "${APP_ARGS[@]}" >"$WORK/app.log" 2>&1) &
+    pid=$!
+    until curl -sf -o /dev/null "$HEALTH"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "falhou (ver $WORK/app.log)" >&2
+            tail -20 "$WORK/app.log" >&2
+            return 1
+        fi
+        sleep 0.05
+    done
+    elapsed=$(( $(now_ms) - start ))
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$elapsed"
+}
+
+run_mode() {
+    local mode=$1
+    shift
+    local times=() total=0 t
+    for _ in $(seq "$RUNS"); do
+        t=$(measure "$@")
+        times+=("$t")
+        total=$((total + t))
+    done
+    local sorted
+    sorted=$(printf '%s\n' "${times[@]}" | sort -n | tr '\n' ' ')
+    printf '%-8s média %6d ms   mínimo %6d ms   execuções: %s\n' \
+        "$mode" $((total / RUNS)) "$(printf '%s\n' "${times[@]}" | sort -n | head -1)" "$sorted"
+}
+
+echo "Inicialização até o health responder, $RUNS execuções por modo"
+run_mode default java -jar "$JAR"
+run_mode lazy    java -jar "$JAR" --spring.profiles.active=fast-startup
+run_mode aot     java -Dspring.aot.enabled=true -jar "$JAR" --spring.profiles.active=fast-startup
+if [ -f "$DIR/application.jsa" ]; then
+    run_mode cds java -XX:SharedArchiveFile=application.jsa -Xlog:cds=off -Dspring.aot.enabled=true \
+        -jar "$JAR" --spring.profiles.active=fast-startup
+fi
+if [ -x "$NATIVE" ]; then
+    run_mode native "$NATIVE" --spring.profiles.active=fast-startup
+fi
@@ -1,7 +1,6 @@
 package com.mercado.filemonitor.config;
 
 import lombok.Data;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
@@ -9,14 +8,34 @@ import org.springframework.context.annotation.Configuration;
 @ConfigurationProperties(prefix = "app-mercado.remote")
 @Data
 public class ClientConfig {
-    @Value("${app-mercado.remote.host}")
     private String host;
-    @Value("${app-mercado.remote.port}")
     private String port;
-    @Value("${app-mercado.remote.path}")
     private String path;
-    @Value("${app-mercado.remote.endpoint-export}")
     private String endpoint;
-    @Value("${app-mercado.remote.produtos-endpoint}")
     private String produtos_endpoint;
-}
\ No newline at end of file
+
+    // Envia o corpo com Content-Encoding: gzip
+    private boolean gzipEnabled = false;
+
+    private int connectTimeoutMs = 5000;
+    private long responseTimeoutMs = 60000;
+    // Conexões simultâneas no pool do cliente (0 = padrão do reactor-netty)
+    private int maxConnections = 0;
+
+    // Produtos por chamada ao import-txt
+    private int batchSize = 5000;
+
+    // Circuit breaker: falhas seguidas para abrir e tempo aberto antes de testar de novo
+    private int failureThreshold = 3;
+    private long openDurationMs = 30000;
+
+    // Outbox local para os lotes não entregues enquanto o remoto está fora
+    private String outboxDirectory;
+    private long outboxDrainIntervalMs = 10000;
+    private int outboxDrainMaxBatches = 10;
+
+    // Propriedade app-mercado.remote.endpoint-export
+    public void setEndpointExport(String endpointExport) {
+        this.endpoint = endpointExport;
+    }
+}
@@ -0,0 +1,35 @@
+package com.mercado.filemonitor.config;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Map;
+
+/**
+ * Publicado depois que a configuração foi recarregada, com as propriedades que mudaram
+ * (chave "file.monitor.pollingInterval", "app-mercado.remote.host"... e o novo valor)
+ */
+public class ConfigReloadedEvent extends ApplicationEvent {
+
+    public static final String FILE_MONITOR = "file.monitor.";
+    public static final String REMOTE = "app-mercado.remote.";
+
+    private final Map<String, Object> changes;
+
+    public ConfigReloadedEvent(Object source, Map<String, Object> changes) {
+        super(source);
+        this.changes = changes;
+    }
+
+    public Map<String, Object> getChanges() {
+        return changes;
+    }
+
+    public boolean changed(String... keys) {
+        for (String key : keys) {
+            if (changes.containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,27 +1,137 @@
 package com.mercado.filemonitor.config;
 
 import lombok.Data;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 @ConfigurationProperties(prefix = "file.monitor")
 @Data
 public class FileMonitorConfig {
 
-    @Value("${file.monitor.path_raiz}")
+    // Diretórios: as propriedades têm outros nomes (path_raiz, input-directorio...), ver setters no fim
     private String path;
-
-    @Value("${file.monitor.input-directorio}")
     private String inputDirectory;
-
-    @Value("${file.monitor.output-directorio}")
     private String outputDirectory;
-
-    @Value("${file.monitor.output-directorio-jsonprodutos}")
     private String outputDirectoryJsonProdutos;
+    private String outputDirectorySnapshot;
+    private String outputDirectoryNdjson;
+    private String outputDirectoryRejects;
+    private String processedDirectory;
+    private String failedDirectory;
+
+    // Destino do arquivo de entrada depois de processado: none (fica na entrada), move ou archive (gzip)
+    private String postProcessing = "none";
+
+    // Snapshot binário de produtos (opcional), gerado junto com os JSONs
+    private boolean snapshotEnabled = false;
+
+    // Compressão dos artefatos de saída: "none" ou "gzip"
+    private String outputCompression = "none";
+    private int outputCompressionLevel = 6;
+    private int outputBufferSize = 64 * 1024;
+
+    // Quantidade de artefatos mantidos por arquivo de origem e tipo (0 = mantém todos)
+    private int outputRetention = 0;
+
+    // Charset dos arquivos de entrada (o ERP legado exporta em windows-1252)
+    private String charset = "windows-1252";
+
+    // "strict": a primeira linha inválida falha o arquivo; "tolerant": rejeita a linha (.rejects) e continua
+    private String parseMode = "strict";
+    // Limite de linhas rejeitadas no modo tolerante antes de falhar o arquivo (-1 = sem limite)
+    private int maxRejectedLines = 1000;
+
+    // Arquivos que crescem ao longo do dia: processa só as linhas completas anexadas desde o último processamento
+    private boolean tailMode = false;
+
+    // Código repetido no mesmo arquivo: last (vale a última ocorrência), first ou none (envia todos)
+    private String duplicatePolicy = "last";
+
+    // Arquivo externo (YAML ou .properties) recarregado sem reiniciar quando é alterado
+    private String configFile;
+    private long configWatchIntervalMs = 5000;
 
     private long pollingInterval = 5000;
     private String filePattern = "txitens.txt";
-}
\ No newline at end of file
+
+    // Fila dos arquivos detectados: workers, limite da faixa rápida, cota de workers para arquivos
+    // grandes e espera máxima antes de um arquivo passar à frente dos demais
+    private int schedulerThreads = 4;
+    private long smallFileMaxBytes = 16 * 1024 * 1024;
+    private int largeFileMaxWorkers = 1;
+    private long schedulerMaxWaitMs = 60000;
+
+    // Pool dos jobs manuais (/process e /produtos/generate)
+    private int jobThreads = 2;
+    private int jobQueueCapacity = 100;
+
+    // Capacidade do ring buffer de eventos de andamento (arredondada para potência de 2)
+    private int progressBufferSize = 1024;
+
+    // Destinos dos produtos de cada arquivo: http, ndjson, queue (executados em paralelo)
+    private List<String> sinks = new ArrayList<>(List.of("http"));
+
+    // Lotes mantidos em memória por sink antes de segurar a entrega (backpressure)
+    private int sinkBufferBatches = 4;
+
+    // Lotes pendentes por consumidor da fila em processo (sink "queue")
+    private int queueSinkCapacity = 16;
+
+    // Espera máxima por espaço na fila de um consumidor; depois disso ele é descadastrado
+    private long queueSinkOfferTimeoutMs = 5000;
+
+    // Várias instâncias na mesma pasta: cada arquivo é reivindicado por rename em .claims/<node-id>/
+    // e, sem post-processing, apagado depois de processado
+    private boolean clusterEnabled = false;
+    private String nodeId;  // vazio = hostname-pid
+    private long claimLeaseTimeoutMs = 60000;
+    private long claimHeartbeatIntervalMs = 10000;
+
+    // Último produto enviado de cada id (somando os arquivos processados), para consulta em /produtos/{id}
+    private boolean catalogIndexEnabled = true;
+
+    // Serializadores JSON gerados em bytecode (Blackbird) em vez de reflexão; desligar no build nativo
+    private boolean jsonBytecodeSerializers = true;
+
+    // Setters com os nomes das propriedades de diretório no application.yml, ligados pelo Binder
+
+    public void setPathRaiz(String pathRaiz) {
+        this.path = pathRaiz;
+    }
+
+    public void setInputDirectorio(String inputDirectorio) {
+        this.inputDirectory = inputDirectorio;
+    }
+
+    public void setOutputDirectorio(String outputDirectorio) {
+        this.outputDirectory = outputDirectorio;
+    }
+
+    public void setOutputDirectorioJsonprodutos(String outputDirectorioJsonprodutos) {
+        this.outputDirectoryJsonProdutos = outputDirectorioJsonprodutos;
+    }
+
+    public void setOutputDirectorioSnapshot(String outputDirectorioSnapshot) {
+        this.outputDirectorySnapshot = outputDirectorioSnapshot;
+    }
+
+    public void setOutputDirectorioNdjson(String outputDirectorioNdjson) {
+        this.outputDirectoryNdjson = outputDirectorioNdjson;
+    }
+
+    public void setOutputDirectorioRejects(String outputDirectorioRejects) {
+        this.outputDirectoryRejects = outputDirectorioRejects;
+    }
+
+    public void setProcessedDirectorio(String processedDirectorio) {
+        this.processedDirectory = processedDirectorio;
+    }
+
+    public void setFailedDirectorio(String failedDirectorio) {
+        this.failedDirectory = failedDirectorio;
+    }
+}
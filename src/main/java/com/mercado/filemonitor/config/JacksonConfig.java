@@ -0,0 +1,36 @@
+package com.mercado.filemonitor.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Ajustes do ObjectMapper único da aplicação, usado pelos arquivos JSON, sinks, outbox,
+ * WebClient e controllers (ver {@link com.mercado.filemonitor.util.JsonWriters}).
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Getters e construtores chamados por lambdas geradas em vez de reflexão. O Spring Boot
+     * registra todo bean Module no ObjectMapper e nos codecs do WebClient.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "file.monitor", name = "json-bytecode-serializers", matchIfMissing = true)
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * Sem flush a cada writeValue: quem escreve produto a produto num gerador (NDJSON, corpo
+     * em pedaços do import-txt) decide quando descarregar, e o close sempre descarrega
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fileMonitorJacksonCustomizer() {
+        return builder -> builder.featuresToDisable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+}
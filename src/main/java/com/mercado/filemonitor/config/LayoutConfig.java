@@ -0,0 +1,83 @@
+package com.mercado.filemonitor.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.mercado.filemonitor.util.ByteDecoder;
+import com.mercado.filemonitor.util.RecordLayout;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Layout posicional das linhas do arquivo. Sem campos configurados vale o layout padrão de
+ * {@link com.mercado.filemonitor.util.Constants}; um layout de outro fornecedor pode vir do
+ * application.yml ({@code file.monitor.layout.fields}) ou de um arquivo JSON ({@code file.monitor.layout.file}).
+ * Offsets e tamanhos são em bytes, no charset de {@code file.monitor.charset}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "file.monitor.layout")
+@Data
+@Slf4j
+public class LayoutConfig {
+
+    // Arquivo JSON com o layout ({"min_line_length": 97, "fields": [...]}), tem prioridade sobre os campos abaixo
+    private String file;
+
+    private int minLineLength = RecordLayout.DEFAULT_MIN_LINE_LENGTH;
+    private List<Field> fields = new ArrayList<>();
+
+    @Data
+    public static class Field {
+        // Propriedade de PositionalRecord preenchida pelo campo (codigo, nome, valor...)
+        private String name;
+        private int offset;
+        private int length;
+        // STRING, DECIMAL ou INTEGER
+        private String type = "STRING";
+        // STRING: trim (padrão), raw, pooled | DECIMAL: implied-2 (padrão), plain | INTEGER: integer
+        private String converter;
+        private boolean required = true;
+    }
+
+    @Data
+    public static class Descriptor {
+        private int minLineLength = RecordLayout.DEFAULT_MIN_LINE_LENGTH;
+        private List<Field> fields = new ArrayList<>();
+    }
+
+    /**
+     * Compila o layout uma única vez na inicialização
+     */
+    @Bean
+    public RecordLayout recordLayout(ObjectMapper objectMapper, FileMonitorConfig fileMonitorConfig) throws IOException {
+        ByteDecoder decoder = ByteDecoder.forCharset(Charset.forName(fileMonitorConfig.getCharset()));
+        int minLength = minLineLength;
+        List<Field> definitions = fields;
+
+        if (file != null && !file.isBlank()) {
+            Path path = Paths.get(file);
+            Descriptor descriptor = objectMapper.copy()
+                    .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                    .readValue(Files.readAllBytes(path), Descriptor.class);
+            minLength = descriptor.getMinLineLength();
+            definitions = descriptor.getFields();
+            log.info("Layout posicional carregado de {}", path);
+        }
+
+        RecordLayout layout = definitions.isEmpty()
+                ? RecordLayout.defaultLayout(minLength, decoder)
+                : RecordLayout.compile(minLength, definitions, decoder);
+        log.info("Layout posicional: {}", layout);
+        return layout;
+    }
+}
@@ -0,0 +1,71 @@
+package com.mercado.filemonitor.config;
+
+import com.mercado.filemonitor.dto.OutboxEntry;
+import com.mercado.filemonitor.dto.PositionalRecord;
+import com.mercado.filemonitor.dto.ProdutoBatch;
+import com.mercado.filemonitor.dto.ProdutoDTO;
+import com.mercado.filemonitor.dto.ProgressEvent;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Ajustes da inicialização rápida (perfil "fast-startup" e build -Pfast-startup / -Pnative).
+ * Com spring.main.lazy-initialization, beans só são criados quando usados; os que agendam tarefas
+ * ou escutam eventos continuam ansiosos, senão o monitoramento e as drenagens nunca começariam.
+ */
+@Configuration
+@ImportRuntimeHints(StartupConfig.NativeHints.class)
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter scheduledAndListenerBeans() {
+        return (beanName, definition, beanType) -> beanType != null
+                && (SchedulingConfigurer.class.isAssignableFrom(beanType) || hasTriggerMethods(beanType));
+    }
+
+    private static boolean hasTriggerMethods(Class<?> beanType) {
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(beanType, ReflectionUtils.USER_DECLARED_METHODS)) {
+            if (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                    || AnnotatedElementUtils.hasAnnotation(method, EventListener.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tipos acessados por reflexão fora do que o processamento AOT enxerga: setters do layout
+     * (MethodHandles), JSON lido/escrito direto pelo ObjectMapper (layout, outbox, sinks, SSE)
+     */
+    static class NativeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            Class<?>[] types = {
+                    PositionalRecord.class,
+                    LayoutConfig.Descriptor.class,
+                    LayoutConfig.Field.class,
+                    OutboxEntry.class,
+                    ProdutoBatch.class,
+                    ProdutoDTO.class,
+                    ProdutoDTO.CategoriaDTO.class,
+                    ProgressEvent.class
+            };
+            for (Class<?> type : types) {
+                hints.reflection().registerType(type, MemberCategory.values());
+            }
+        }
+    }
+}
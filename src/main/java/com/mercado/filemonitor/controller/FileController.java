@@ -1,14 +1,20 @@
 package com.mercado.filemonitor.controller;
 
-import com.mercado.filemonitor.config.FileMonitorConfig;
 import com.mercado.filemonitor.dto.PositionalRecord;
 import com.mercado.filemonitor.dto.ProdutoDTO;
+import com.mercado.filemonitor.dto.ProgressEvent;
 import com.mercado.filemonitor.entity.FileRecord;
 import com.mercado.filemonitor.repository.FileRecordRepository;
+import com.mercado.filemonitor.service.ConfigReloadService;
 import com.mercado.filemonitor.service.FileParserService;
+import com.mercado.filemonitor.service.FileProcessingScheduler;
 import com.mercado.filemonitor.service.FileProcessingService;
-import com.mercado.filemonitor.service.ProdutoJsonService;
+import com.mercado.filemonitor.service.ProcessingJob;
+import com.mercado.filemonitor.service.ProcessingJobService;
+import com.mercado.filemonitor.service.ProdutoCatalogIndex;
 import com.mercado.filemonitor.service.ProdutoMapperService;
+import com.mercado.filemonitor.service.ProgressEventPublisher;
+import com.mercado.filemonitor.util.ProdutoWebClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -16,16 +22,23 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.nio.file.Path;
+import java.time.Duration;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 @RestController
 @RequestMapping("/api/files")
@@ -36,12 +49,20 @@ public class FileController {
     private static final String STATUS = "status";
     private static final String MESSAGE = "message";
     public static final String ERROR = "error";
+    private static final String JOB_ID = "job_id";
+    private static final int MAX_PREVIEW_LIMIT = 1000;
+    private static final int MAX_LOOKUP_IDS = 10000;
+    private static final Duration PROGRESS_STREAM_INTERVAL = Duration.ofMillis(500);
     private final FileRecordRepository fileRecordRepository;
     private final FileProcessingService fileProcessingService;
     private final FileParserService fileParserService;
     private final ProdutoMapperService produtoMapperService;
-    private final ProdutoJsonService produtoJsonService;
-    private final FileMonitorConfig fileMonitorConfig;
+    private final ProcessingJobService processingJobService;
+    private final ProgressEventPublisher progressEventPublisher;
+    private final ProdutoWebClient produtoWebClient;
+    private final ConfigReloadService configReloadService;
+    private final ProdutoCatalogIndex produtoCatalogIndex;
+    private final FileProcessingScheduler fileProcessingScheduler;
 
     @GetMapping
     public ResponseEntity<Page<FileRecord>> getAllFileRecords(
@@ -82,6 +103,9 @@ public class FileController {
         stats.put("processing", fileRecordRepository.countByStatus(FileRecord.ProcessingStatus.PROCESSING));
         stats.put("errors", fileRecordRepository.countByStatus(FileRecord.ProcessingStatus.ERROR));
         stats.put("pending", fileRecordRepository.countByStatus(FileRecord.ProcessingStatus.PENDING));
+        stats.put("spooled", fileRecordRepository.countByStatus(FileRecord.ProcessingStatus.SPOOLED));
+        stats.put("remote_circuit", produtoWebClient.getCircuitState());
+        stats.put("scheduler", fileProcessingScheduler.getStatus());
 
         // Estatísticas das últimas 24 horas
         LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
@@ -104,8 +128,8 @@ public class FileController {
     // ========== PROCESSAMENTO DE ARQUIVOS ==========
 
     @PostMapping("/process")
-    public ResponseEntity<Map<String, String>> processFile(@RequestParam String filePath) {
-        Map<String, String> response = new HashMap<>();
+    public ResponseEntity<Map<String, Object>> processFile(@RequestParam String filePath) {
+        Map<String, Object> response = new HashMap<>();
 
         try {
             Path path = Paths.get(filePath);
@@ -116,12 +140,18 @@ public class FileController {
                 return ResponseEntity.ok(response);
             }
 
-            fileProcessingService.processFile(path);
+            ProcessingJob job = processingJobService.submitProcess(path);
 
-            response.put(STATUS, "processing");
-            response.put(MESSAGE, "Processamento iniciado para o arquivo: " + filePath);
+            response.put(STATUS, "queued");
+            response.put(JOB_ID, job.getId());
+            response.put(MESSAGE, "Processamento enfileirado para o arquivo: " + filePath);
             return ResponseEntity.accepted().body(response);
 
+        } catch (RejectedExecutionException e) {
+            log.warn("Fila de jobs cheia, processamento recusado: {}", filePath);
+            response.put(STATUS, ERROR);
+            response.put(MESSAGE, "Fila de processamento cheia, tente novamente mais tarde");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
         } catch (Exception e) {
             log.error("Erro ao processar arquivo manualmente: {}", e.getMessage(), e);
             response.put(STATUS, ERROR);
@@ -131,26 +161,77 @@ public class FileController {
     }
 
 
+    // ========== JOBS ==========
+
+    @GetMapping("/jobs")
+    public ResponseEntity<List<Map<String, Object>>> listJobs() {
+        return ResponseEntity.ok(processingJobService.listJobs().stream()
+                .map(ProcessingJob::toStatusMap)
+                .toList());
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String jobId) {
+        return processingJobService.findJob(jobId)
+                .map(job -> ResponseEntity.ok(job.toStatusMap()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> cancelJob(@PathVariable String jobId) {
+        return processingJobService.cancel(jobId)
+                .map(job -> ResponseEntity.accepted().body(job.toStatusMap()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+
+    // ========== ANDAMENTO EM TEMPO REAL ==========
+
+    @GetMapping(value = "/progress/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ProgressEvent>> streamProgress(
+            @RequestParam(required = false) String fileName,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+
+        AtomicLong cursor = new AtomicLong(
+                lastEventId != null ? lastEventId + 1 : progressEventPublisher.currentSequence());
+
+        return Flux.interval(PROGRESS_STREAM_INTERVAL)
+                .concatMapIterable(tick -> progressEventPublisher.readSince(cursor, fileName))
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(String.valueOf(event.getSequence()))
+                        .event("progress")
+                        .build());
+    }
+
+
     // ========== ENDPOINTS DE PRODUTOS ==========
 
     @GetMapping("/produtos/preview")
-    public ResponseEntity<Map<String, Object>> previewProdutos(@RequestParam String filePath) {
+    public ResponseEntity<Map<String, Object>> previewProdutos(@RequestParam String filePath,
+                                                               @RequestParam(defaultValue = "10") int limit) {
         Map<String, Object> response = new HashMap<>();
 
         try {
             Path path = Paths.get(filePath);
+            int previewLimit = Math.max(1, Math.min(limit, MAX_PREVIEW_LIMIT));
 
-            // Parse do arquivo
-            List<PositionalRecord> records = fileParserService.parsePositionalFile(path);
+            // Parse apenas das primeiras linhas do arquivo
+            List<PositionalRecord> records = fileParserService.parsePositionalFileHead(path, previewLimit);
 
             // Mapeamento para produtos
             List<ProdutoDTO> produtos = produtoMapperService.mapToProdutos(records);
 
+            // Arquivo lido até o fim: o total é exato; senão, estimado pelo tamanho da primeira linha
+            boolean wholeFile = records.size() < previewLimit;
+            long totalRecords = wholeFile ? records.size() : fileParserService.estimateRecordCount(path);
+
             response.put(STATUS, "success");
-            response.put("total_records", records.size());
-            response.put("total_produtos", produtos.size());
-            response.put("produtos", produtos.size() > 10 ? produtos.subList(0, 10) : produtos); // Primeiros 10
-            response.put(MESSAGE, produtos.size() > 10 ? "Mostrando primeiros 10 produtos" : "Todos os produtos");
+            response.put("limit", previewLimit);
+            response.put("total_records", totalRecords);
+            response.put("total_produtos", totalRecords); // um produto por registro
+            response.put("estimated_total_records", totalRecords);
+            response.put("produtos", produtos);
+            response.put(MESSAGE, wholeFile ? "Todos os produtos" : "Mostrando primeiros " + produtos.size() + " produtos");
 
             return ResponseEntity.ok(response);
 
@@ -163,28 +244,22 @@ public class FileController {
     }
 
     @PostMapping("/produtos/generate")
-    public ResponseEntity<Map<String, String>> generateProdutoJson(@RequestParam String filePath) {
-        Map<String, String> response = new HashMap<>();
+    public ResponseEntity<Map<String, Object>> generateProdutoJson(@RequestParam String filePath) {
+        Map<String, Object> response = new HashMap<>();
 
         try {
-            Path path = Paths.get(filePath);
-            Path outputDir = Paths.get(fileMonitorConfig.getOutputDirectory());
-            Path outputDirJson = Paths.get(fileMonitorConfig.getOutputDirectoryJsonProdutos());
-
-            // Parse e mapeamento
-            List<PositionalRecord> records = fileParserService.parsePositionalFile(path);
-            List<ProdutoDTO> produtos = produtoMapperService.mapToProdutos(records);
-
-            // Gerar JSON de produtos
-            Path produtoJsonPath = produtoJsonService.generateProdutoJsonFile(produtos, outputDirJson, path.getFileName().toString());
-
-            response.put(STATUS, "success");
-            response.put(MESSAGE, "JSON de produtos gerado com sucesso");
-            response.put("output_path", produtoJsonPath.toString());
-            response.put("total_produtos", String.valueOf(produtos.size()));
+            ProcessingJob job = processingJobService.submitGenerateProdutos(Paths.get(filePath));
 
-            return ResponseEntity.ok(response);
+            response.put(STATUS, "queued");
+            response.put(JOB_ID, job.getId());
+            response.put(MESSAGE, "Geração do JSON de produtos enfileirada");
+            return ResponseEntity.accepted().body(response);
 
+        } catch (RejectedExecutionException e) {
+            log.warn("Fila de jobs cheia, geração recusada: {}", filePath);
+            response.put(STATUS, ERROR);
+            response.put(MESSAGE, "Fila de processamento cheia, tente novamente mais tarde");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
         } catch (Exception e) {
             log.error("Erro ao gerar JSON de produtos: {}", e.getMessage(), e);
             response.put(STATUS, ERROR);
@@ -192,4 +267,72 @@ public class FileController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
+
+    @GetMapping("/produtos/{id:\\d+}")
+    public ResponseEntity<ProdutoDTO> getProduto(@PathVariable long id) {
+        ProdutoDTO produto = produtoCatalogIndex.find(id);
+        return produto != null ? ResponseEntity.ok(produto) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Consulta em lote no catálogo em memória; o corpo é a lista de ids
+     */
+    @PostMapping("/produtos/lookup")
+    public ResponseEntity<Map<String, Object>> lookupProdutos(@RequestBody long[] ids) {
+        Map<String, Object> response = new HashMap<>();
+
+        if (ids.length > MAX_LOOKUP_IDS) {
+            response.put(STATUS, ERROR);
+            response.put(MESSAGE, "Máximo de " + MAX_LOOKUP_IDS + " ids por consulta");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        ProdutoDTO[] found = produtoCatalogIndex.findAll(ids);
+        List<ProdutoDTO> produtos = new ArrayList<>(ids.length);
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (found[i] != null) {
+                produtos.add(found[i]);
+            } else {
+                missing.add(ids[i]);
+            }
+        }
+
+        response.put(STATUS, "success");
+        response.put("produtos", produtos);
+        response.put("missing", missing);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/produtos/catalog")
+    public ResponseEntity<Map<String, Object>> getCatalogStatus() {
+        return ResponseEntity.ok(produtoCatalogIndex.getStatus());
+    }
+
+    // ========== ADMINISTRAÇÃO ==========
+
+    @GetMapping("/admin/config")
+    public ResponseEntity<Map<String, Object>> getConfigStatus() {
+        return ResponseEntity.ok(configReloadService.getStatus());
+    }
+
+    @PostMapping("/admin/config/reload")
+    public ResponseEntity<Map<String, Object>> reloadConfig() {
+        Map<String, Object> response = new HashMap<>();
+        Map<String, Object> changes;
+        try {
+            changes = configReloadService.reload();
+        } catch (IllegalStateException e) {
+            log.error(e.getMessage());
+            response.put(STATUS, ERROR);
+            response.put(MESSAGE, e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+        }
+        response.put(STATUS, "reloaded");
+        response.put("changed", changes);
+        response.put(MESSAGE, changes.isEmpty()
+                ? "Nenhuma propriedade alterada"
+                : changes.size() + " propriedade(s) alterada(s)");
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,34 @@
+package com.mercado.filemonitor.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEntry {
+
+    @JsonProperty("file_record_id")
+    private Long fileRecordId;
+
+    @JsonProperty("source")
+    private String source;
+
+    @JsonProperty("batch_index")
+    private int batchIndex;
+
+    @JsonProperty("batch_count")
+    private int batchCount;
+
+    @JsonProperty("idempotency_key")
+    private String idempotencyKey;
+
+    @JsonProperty("produtos")
+    private List<ProdutoDTO> produtos;
+}
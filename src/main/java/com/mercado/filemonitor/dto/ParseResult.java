@@ -0,0 +1,27 @@
+package com.mercado.filemonitor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParseResult {
+
+    private List<PositionalRecord> records;
+
+    // Linhas rejeitadas no modo tolerante (0 no modo estrito)
+    private int rejectedCount;
+
+    // Arquivo .rejects gerado, ou null se nenhuma linha foi rejeitada
+    private Path rejectsPath;
+
+    // Posição do arquivo logo após a última linha lida (base do próximo parse no modo tail)
+    private long endOffset;
+}
@@ -0,0 +1,31 @@
+package com.mercado.filemonitor.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProdutoBatch {
+
+    @JsonProperty("source")
+    private String source;
+
+    @JsonProperty("file_record_id")
+    private Long fileRecordId;
+
+    @JsonProperty("batch_index")
+    private int batchIndex;
+
+    @JsonProperty("batch_count")
+    private int batchCount;
+
+    @JsonProperty("produtos")
+    private List<ProdutoDTO> produtos;
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
 import java.math.BigDecimal;
 
@@ -50,10 +52,12 @@ public class ProdutoDTO {
     @JsonProperty("imagem")
     private String imagem;
 
-    @Data
+    /**
+     * Imutável: uma mesma instância é compartilhada por todos os produtos da categoria
+     */
+    @Value
     @Builder
-    @NoArgsConstructor
-    @AllArgsConstructor
+    @Jacksonized
     public static class CategoriaDTO {
         @JsonProperty("id")
         private Long id;
@@ -0,0 +1,38 @@
+package com.mercado.filemonitor.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressEvent {
+
+    @JsonProperty("sequence")
+    private long sequence;
+
+    @JsonProperty("file_name")
+    private String fileName;
+
+    @JsonProperty("stage")
+    private String stage;
+
+    @JsonProperty("lines_parsed")
+    private long linesParsed;
+
+    @JsonProperty("bytes_processed")
+    private long bytesProcessed;
+
+    @JsonProperty("batches_sent")
+    private int batchesSent;
+
+    @JsonProperty("lines_per_second")
+    private long linesPerSecond;
+
+    @JsonProperty("timestamp")
+    private long timestamp;
+}
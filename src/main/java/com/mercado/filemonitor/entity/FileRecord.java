@@ -37,7 +37,7 @@ public class FileRecord {
     @Enumerated(EnumType.STRING)
     private ProcessingStatus status;
 
-    @Column(name = "output_path")
+    @Column(name = "output_path", length = 1000)
     private String outputPath;
 
     @Column(name = "records_count")
@@ -46,7 +46,51 @@ public class FileRecord {
     @Column(name = "error_message", length = 1000)
     private String errorMessage;
 
+    // Linhas rejeitadas no modo tolerante de parse
+    @Column(name = "rejected_count")
+    private Integer rejectedCount;
+
+    // Modo tail: posição logo após a última linha processada e hash do início do arquivo até ela
+    // (no máximo 4 KB), usado para detectar truncamento ou rotação
+    @Column(name = "processed_offset")
+    private Long processedOffset;
+
+    @Column(name = "head_fingerprint")
+    private String headFingerprint;
+
+    // Para onde o arquivo de entrada foi movido após o processamento (post-processing)
+    @Column(name = "archived_path")
+    private String archivedPath;
+
+    // Produtos descartados por código repetido no arquivo (política duplicate-policy)
+    @Column(name = "duplicates_count")
+    private Integer duplicatesCount;
+
+    @Column(name = "duplicate_policy", length = 20)
+    private String duplicatePolicy;
+
+    // SHA-256 do conteúdo, base das chaves de idempotência dos lotes
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "batch_size")
+    private Integer batchSize;
+
+    @Column(name = "batch_count")
+    private Integer batchCount;
+
+    // Lotes confirmados pelo remoto (BitSet em Base64)
+    @Column(name = "acked_batches", length = 4000)
+    private String ackedBatches;
+
+    // Processamento e drenagem do outbox gravam o mesmo registro: conflito de versão em vez de sobrescrita
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     public enum ProcessingStatus {
-        PENDING, PROCESSING, COMPLETED, ERROR
+        PENDING, PROCESSING, COMPLETED, ERROR,
+        // Processado, com lotes aguardando entrega no outbox
+        SPOOLED
     }
 }
\ No newline at end of file
@@ -0,0 +1,146 @@
+package com.mercado.filemonitor.loadtest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mercado.filemonitor.util.BatchAcks;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Substituto local do import-txt do api-mercado para o teste de carga. Lê o corpo inteiro
+ * (contando os produtos em streaming, com ou sem gzip), aplica a latência configurada e
+ * responde 503 na fração configurada de chamadas.
+ */
+@RestController
+@Profile("loadtest")
+@RequestMapping("/loadtest/fake-remote")
+@RequiredArgsConstructor
+@Slf4j
+public class FakeImportController {
+
+    private final LoadTestConfig loadTestConfig;
+    private final ObjectMapper objectMapper;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder produtos = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder resent = new LongAdder();
+    private final Set<String> acceptedKeys = ConcurrentHashMap.newKeySet();
+
+    @PostMapping("/import-txt")
+    public ResponseEntity<Map<String, Object>> importTxt(HttpServletRequest request) throws IOException {
+        requests.increment();
+        long count = countProdutos(request);
+
+        long latency = loadTestConfig.getFakeLatencyMs();
+        if (loadTestConfig.getFakeLatencyJitterMs() > 0) {
+            latency += ThreadLocalRandom.current().nextLong(loadTestConfig.getFakeLatencyJitterMs() + 1);
+        }
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        if (ThreadLocalRandom.current().nextDouble() < loadTestConfig.getFakeErrorRate()) {
+            errors.increment();
+            response.put("status", "error");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
+
+        String key = request.getHeader(BatchAcks.IDEMPOTENCY_HEADER);
+        if (key != null && !acceptedKeys.add(key)) {
+            resent.increment();
+        } else {
+            produtos.add(count);
+        }
+        response.put("status", "ok");
+        response.put("produtos", count);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        return ResponseEntity.ok(getStats());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("requests", requests.sum());
+        stats.put("produtos_aceitos", produtos.sum());
+        stats.put("bytes_recebidos", bytes.sum());
+        stats.put("respostas_503", errors.sum());
+        stats.put("lotes_reenviados", resent.sum());
+        return stats;
+    }
+
+    private long countProdutos(HttpServletRequest request) throws IOException {
+        InputStream body = new CountingInputStream(request.getInputStream(), bytes);
+        if ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+            body = new GZIPInputStream(body, 8 * 1024);
+        }
+        long count = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return 0;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final LongAdder counter;
+
+        private CountingInputStream(InputStream in, LongAdder counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                counter.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                counter.add(n);
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.mercado.filemonitor.loadtest;
+
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Parâmetros do teste de carga (perfil "loadtest", ver application-loadtest.yml)
+ */
+@Configuration
+@Profile("loadtest")
+@ConfigurationProperties(prefix = "loadtest")
+@Data
+public class LoadTestConfig {
+
+    // Arquivos sintéticos gerados, linhas por arquivo e ritmo de chegada na pasta de entrada
+    private int files = 20;
+    private int linesPerFile = 30000;
+    private double filesPerSecond = 2.0;
+
+    // Espera após a subida antes do primeiro arquivo
+    private long startDelayMs = 2000;
+
+    // Tempo máximo esperando os arquivos terminarem antes de gerar o relatório
+    private long timeoutMs = 600000;
+
+    // Remove os loadtest_*.txt de execuções anteriores antes de começar
+    private boolean cleanInputDirectory = true;
+
+    // Encerra a aplicação ao final (código de saída 1 se algum arquivo terminou em erro ou não terminou)
+    private boolean exitOnFinish = false;
+
+    @Value("${loadtest.report-directory:${file.monitor.output-directorio}/loadtest}")
+    private String reportDirectory;
+
+    // Remoto falso (/loadtest/fake-remote/import-txt): latência por chamada e fração de respostas 503
+    private long fakeLatencyMs = 50;
+    private long fakeLatencyJitterMs = 0;
+    private double fakeErrorRate = 0.0;
+}
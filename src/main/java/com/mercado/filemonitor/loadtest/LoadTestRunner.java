@@ -0,0 +1,287 @@
+package com.mercado.filemonitor.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mercado.filemonitor.config.FileMonitorConfig;
+import com.mercado.filemonitor.dto.ProgressEvent;
+import com.mercado.filemonitor.entity.FileRecord;
+import com.mercado.filemonitor.repository.FileRecordRepository;
+import com.mercado.filemonitor.service.ProgressEventPublisher;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conduz o teste de carga: solta os arquivos sintéticos na pasta de entrada no ritmo configurado,
+ * acompanha cada um pelo stream de andamento até o estágio final e gera o relatório
+ * (arquivos/s, linhas/s, latência da chegada do arquivo até o último lote confirmado e pico de heap).
+ */
+@Component
+@Profile("loadtest")
+@RequiredArgsConstructor
+@Slf4j
+public class LoadTestRunner {
+
+    static final String FILE_PREFIX = "loadtest_";
+    private static final long POLL_INTERVAL_MS = 50;
+    private static final long REPOSITORY_CHECK_INTERVAL_MS = 1000;
+    private static final List<String> FINAL_STAGES = List.of("CONCLUIDO", "OUTBOX", "ERRO");
+
+    private final LoadTestConfig loadTestConfig;
+    private final FileMonitorConfig fileMonitorConfig;
+    private final SyntheticFileGenerator generator;
+    private final ProgressEventPublisher progressEventPublisher;
+    private final FileRecordRepository fileRecordRepository;
+    private final FakeImportController fakeImportController;
+    private final ObjectMapper objectMapper;
+    private final ConfigurableApplicationContext context;
+
+    // Arquivo -> momento em que ficou visível na pasta de entrada / em que chegou ao estágio final
+    private final Map<String, Long> droppedAt = new ConcurrentHashMap<>();
+    private final Map<String, Long> finishedAt = new ConcurrentHashMap<>();
+    private final Map<String, String> finalStage = new ConcurrentHashMap<>();
+
+    private volatile long peakHeapBytes;
+    private long lastRepositoryCheck;
+
+    /**
+     * Antes do monitor escanear a pasta: arquivos de execuções anteriores contaminariam a medição
+     */
+    @PostConstruct
+    public void cleanInputDirectory() {
+        if (!loadTestConfig.isCleanInputDirectory()) {
+            return;
+        }
+        Path inputDir = Paths.get(fileMonitorConfig.getInputDirectory());
+        if (!Files.isDirectory(inputDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(inputDir, FILE_PREFIX + "*.txt")) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("Erro ao limpar arquivos de teste de carga anteriores: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread driver = new Thread(this::run, "loadtest-driver");
+        driver.setDaemon(true);
+        driver.start();
+    }
+
+    private void run() {
+        int exitCode = 1;
+        try {
+            sleep(loadTestConfig.getStartDelayMs());
+            log.info("Teste de carga iniciado: {} arquivos de {} linhas a {} arquivos/s",
+                    loadTestConfig.getFiles(), loadTestConfig.getLinesPerFile(), loadTestConfig.getFilesPerSecond());
+
+            resetHeapPeak();
+            AtomicLong cursor = new AtomicLong(progressEventPublisher.currentSequence());
+            String runId = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HHmmss"));
+            Path inputDir = Paths.get(fileMonitorConfig.getInputDirectory());
+            long intervalNanos = loadTestConfig.getFilesPerSecond() > 0
+                    ? (long) (1_000_000_000L / loadTestConfig.getFilesPerSecond())
+                    : 0;
+
+            long startNanos = System.nanoTime();
+            long startMillis = System.currentTimeMillis();
+            long bytesWritten = 0;
+            for (int i = 0; i < loadTestConfig.getFiles(); i++) {
+                // Ritmo fixo a partir do início: o tempo gasto gerando um arquivo não atrasa os próximos
+                long dueNanos = startNanos + i * intervalNanos;
+                while (System.nanoTime() < dueNanos) {
+                    track(cursor);
+                    sleep(Math.min(POLL_INTERVAL_MS, Math.max(1, (dueNanos - System.nanoTime()) / 1_000_000)));
+                }
+                String name = String.format("%s%s_%04d.txt", FILE_PREFIX, runId, i);
+                bytesWritten += generator.generate(inputDir.resolve(name), loadTestConfig.getLinesPerFile());
+                droppedAt.put(name, System.currentTimeMillis());
+            }
+
+            long deadline = System.currentTimeMillis() + loadTestConfig.getTimeoutMs();
+            while (finishedAt.size() < droppedAt.size() && System.currentTimeMillis() < deadline) {
+                track(cursor);
+                sleep(POLL_INTERVAL_MS);
+            }
+            track(cursor);
+
+            Map<String, Object> report = buildReport(startMillis, bytesWritten);
+            writeReport(report);
+            boolean clean = finishedAt.size() == droppedAt.size()
+                    && !finalStage.containsValue("ERRO") && !finalStage.containsValue("ERROR");
+            exitCode = clean ? 0 : 1;
+        } catch (Exception e) {
+            log.error("Erro no teste de carga: {}", e.getMessage(), e);
+        }
+
+        if (loadTestConfig.isExitOnFinish()) {
+            int code = exitCode;
+            System.exit(SpringApplication.exit(context, () -> code));
+        }
+    }
+
+    /**
+     * Registra o estágio final de cada arquivo e amostra o heap
+     */
+    private void track(AtomicLong cursor) {
+        for (ProgressEvent event : progressEventPublisher.readSince(cursor, null)) {
+            if (droppedAt.containsKey(event.getFileName()) && FINAL_STAGES.contains(event.getStage())) {
+                finishedAt.putIfAbsent(event.getFileName(), event.getTimestamp());
+                finalStage.putIfAbsent(event.getFileName(), event.getStage());
+            }
+        }
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        peakHeapBytes = Math.max(peakHeapBytes, memory.getHeapMemoryUsage().getUsed());
+
+        // O ring buffer de andamento sobrescreve eventos antigos; o registro do arquivo cobre o que se perdeu
+        long now = System.currentTimeMillis();
+        if (now - lastRepositoryCheck >= REPOSITORY_CHECK_INTERVAL_MS && finishedAt.size() < droppedAt.size()) {
+            lastRepositoryCheck = now;
+            for (FileRecord record : fileRecordRepository.findAll()) {
+                String name = record.getFileName();
+                if (droppedAt.containsKey(name) && !finishedAt.containsKey(name)
+                        && record.getStatus() != FileRecord.ProcessingStatus.PROCESSING
+                        && record.getStatus() != FileRecord.ProcessingStatus.PENDING) {
+                    finishedAt.putIfAbsent(name, now);
+                    finalStage.putIfAbsent(name, String.valueOf(record.getStatus()));
+                }
+            }
+        }
+    }
+
+    private Map<String, Object> buildReport(long startMillis, long bytesWritten) {
+        long[] latencies = droppedAt.keySet().stream()
+                .filter(finishedAt::containsKey)
+                .mapToLong(name -> finishedAt.get(name) - droppedAt.get(name))
+                .sorted()
+                .toArray();
+        long endMillis = finishedAt.values().stream().mapToLong(Long::longValue).max().orElse(System.currentTimeMillis());
+        double seconds = Math.max(1, endMillis - startMillis) / 1000.0;
+
+        long lines = 0;
+        Map<String, Long> statuses = new LinkedHashMap<>();
+        for (FileRecord record : fileRecordRepository.findAll()) {
+            if (droppedAt.containsKey(record.getFileName())) {
+                lines += record.getRecordsCount() != null ? record.getRecordsCount() : 0;
+                statuses.merge(String.valueOf(record.getStatus()), 1L, Long::sum);
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("arquivos_gerados", droppedAt.size());
+        report.put("arquivos_concluidos", finishedAt.size());
+        report.put("status", statuses);
+        report.put("linhas_por_arquivo", loadTestConfig.getLinesPerFile());
+        report.put("bytes_gerados", bytesWritten);
+        report.put("duracao_s", seconds);
+        report.put("arquivos_por_s", round(finishedAt.size() / seconds));
+        report.put("linhas_por_s", round(lines / seconds));
+        report.put("latencia_ms", percentiles(latencies));
+        report.put("pico_heap_mb", round(peakHeapBytes / (1024.0 * 1024.0)));
+        report.put("pico_heap_pools_mb", round(heapPoolsPeak() / (1024.0 * 1024.0)));
+        report.put("remoto_falso", fakeImportController.getStats());
+        report.put("parametros", parameters());
+        return report;
+    }
+
+    private Map<String, Object> parameters() {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("files_per_second", loadTestConfig.getFilesPerSecond());
+        parameters.put("fake_latency_ms", loadTestConfig.getFakeLatencyMs());
+        parameters.put("fake_latency_jitter_ms", loadTestConfig.getFakeLatencyJitterMs());
+        parameters.put("fake_error_rate", loadTestConfig.getFakeErrorRate());
+        parameters.put("sinks", fileMonitorConfig.getSinks());
+        parameters.put("max_heap_mb", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        parameters.put("processadores", Runtime.getRuntime().availableProcessors());
+        return parameters;
+    }
+
+    private void writeReport(Map<String, Object> report) throws IOException {
+        String json = objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValueAsString(report);
+        Path directory = Paths.get(loadTestConfig.getReportDirectory());
+        Files.createDirectories(directory);
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        Path reportPath = directory.resolve("loadtest-report_" + timestamp + ".json");
+        Files.writeString(reportPath, json);
+        log.info("Teste de carga concluído, relatório em {}:\n{}", reportPath, json);
+    }
+
+    private static Map<String, Object> percentiles(long[] sorted) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (sorted.length == 0) {
+            return result;
+        }
+        result.put("min", sorted[0]);
+        result.put("p50", percentile(sorted, 50));
+        result.put("p90", percentile(sorted, 90));
+        result.put("p99", percentile(sorted, 99));
+        result.put("max", sorted[sorted.length - 1]);
+        result.put("media", round(Arrays.stream(sorted).average().orElse(0)));
+        return result;
+    }
+
+    // Nearest-rank: o menor valor com pelo menos p% das amostras abaixo ou iguais
+    private static long percentile(long[] sorted, int p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static void resetHeapPeak() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    // Soma dos picos de cada pool: limite superior, os picos não acontecem necessariamente juntos
+    private static long heapPoolsPeak() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                total += pool.getPeakUsage().getUsed();
+            }
+        }
+        return total;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
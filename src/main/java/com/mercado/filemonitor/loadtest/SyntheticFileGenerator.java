@@ -0,0 +1,116 @@
+package com.mercado.filemonitor.loadtest;
+
+import com.mercado.filemonitor.util.RecordLayout;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gera arquivos posicionais válidos para o layout configurado. Cada campo é preenchido conforme
+ * o conversor (dígitos para valores, poucos valores distintos para os campos em pool) e o código
+ * segue uma sequência, então os produtos não se repetem até esgotar o tamanho do campo.
+ */
+@Component
+@Profile("loadtest")
+@RequiredArgsConstructor
+public class SyntheticFileGenerator {
+
+    // Propriedade de PositionalRecord que vira o id do produto
+    private static final String CODIGO_FIELD = "codigo";
+    private static final String STAGING_DIRECTORY = ".loadtest-staging";
+    private static final int POOLED_DISTINCT_VALUES = 20;
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final RecordLayout recordLayout;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Escreve o arquivo numa pasta oculta e o move de uma vez para o destino, para o monitor
+     * nunca ver um arquivo pela metade. Retorna o tamanho em bytes.
+     */
+    public long generate(Path target, int lines) throws IOException {
+        Path staging = target.getParent().resolve(STAGING_DIRECTORY).resolve(target.getFileName());
+        Files.createDirectories(staging.getParent());
+
+        Charset charset = recordLayout.getDecoder().getCharset();
+        int lineLength = lineLength();
+        byte[] line = new byte[lineLength + 1];
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(staging), BUFFER_SIZE)) {
+            for (int i = 0; i < lines; i++) {
+                fillLine(line, lineLength, sequence.incrementAndGet(), charset);
+                out.write(line);
+            }
+        }
+        long size = Files.size(staging);
+        Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return size;
+    }
+
+    private int lineLength() {
+        int length = recordLayout.getMinLineLength();
+        for (RecordLayout.Field field : recordLayout.getFields()) {
+            length = Math.max(length, field.getOffset() + field.getLength());
+        }
+        return length;
+    }
+
+    private void fillLine(byte[] line, int lineLength, long number, Charset charset) {
+        Arrays.fill(line, 0, lineLength, (byte) ' ');
+        line[lineLength] = '\n';
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for (RecordLayout.Field field : recordLayout.getFields()) {
+            String value;
+            if (CODIGO_FIELD.equals(field.getName())) {
+                value = digits(number, field.getLength());
+            } else {
+                switch (field.getConverter()) {
+                    case IMPLIED_2:
+                    case INTEGER:
+                        value = digits(1 + random.nextLong(pow10(Math.min(field.getLength(), 9)) - 1), field.getLength());
+                        break;
+                    case PLAIN:
+                        value = random.nextInt(1, 1000) + "." + random.nextInt(10, 100);
+                        break;
+                    case POOLED:
+                        value = digits(1 + random.nextInt(POOLED_DISTINCT_VALUES), field.getLength());
+                        break;
+                    default:
+                        value = "PRODUTO " + number;
+                        break;
+                }
+            }
+            byte[] bytes = value.getBytes(charset);
+            System.arraycopy(bytes, 0, line, field.getOffset(), Math.min(bytes.length, field.getLength()));
+        }
+    }
+
+    private static String digits(long value, int length) {
+        String text = Long.toString(value % pow10(Math.min(length, 18)));
+        StringBuilder padded = new StringBuilder(length);
+        for (int i = text.length(); i < length; i++) {
+            padded.append('0');
+        }
+        return padded.append(text).toString();
+    }
+
+    private static long pow10(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
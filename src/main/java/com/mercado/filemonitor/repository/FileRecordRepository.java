@@ -17,6 +17,14 @@ public interface FileRecordRepository extends JpaRepository<FileRecord, Long> {
 
     List<FileRecord> findByStatus(FileRecord.ProcessingStatus status);
 
+    Optional<FileRecord> findFirstByContentHashAndIdNotOrderByIdDesc(String contentHash, Long id);
+
+    // Tentativa anterior do mesmo arquivo
+    Optional<FileRecord> findFirstByFilePathAndIdLessThanOrderByIdDesc(String filePath, Long id);
+
+    // Último processamento bem-sucedido do arquivo no modo tail
+    Optional<FileRecord> findFirstByFilePathAndProcessedOffsetIsNotNullOrderByIdDesc(String filePath);
+
     @Query("SELECT fr FROM FileRecord fr WHERE fr.processedAt BETWEEN :startDate AND :endDate")
     List<FileRecord> findByProcessedAtBetween(@Param("startDate") LocalDateTime startDate,
                                               @Param("endDate") LocalDateTime endDate);
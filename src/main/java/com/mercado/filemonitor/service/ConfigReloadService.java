@@ -0,0 +1,230 @@
+package com.mercado.filemonitor.service;
+
+import com.mercado.filemonitor.config.ClientConfig;
+import com.mercado.filemonitor.config.ConfigReloadedEvent;
+import com.mercado.filemonitor.config.FileMonitorConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Recarrega a configuração sem reiniciar a aplicação. O arquivo externo
+ * ({@code file.monitor.config-file}, YAML ou properties) tem prioridade sobre o application.yml;
+ * quando ele muda (ou via endpoint de admin) as propriedades são religadas em
+ * {@link FileMonitorConfig} e {@link ClientConfig} e um {@link ConfigReloadedEvent} é publicado.
+ * Layout e charset são compilados na inicialização e não são recarregados.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConfigReloadService {
+
+    private static final String PROPERTY_SOURCE_NAME = "file-monitor-external-config";
+
+    private final ConfigurableEnvironment environment;
+    private final FileMonitorConfig fileMonitorConfig;
+    private final ClientConfig clientConfig;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private FileTime lastModified;
+    private LocalDateTime lastReloadAt;
+    private Map<String, Object> lastChanges = Collections.emptyMap();
+    private String lastError;
+
+    /**
+     * Na primeira execução o arquivo é carregado como fonte de propriedades própria
+     * (o spring.config.import já aplicou os valores na inicialização)
+     */
+    @Scheduled(fixedDelayString = "${file.monitor.config-watch-interval-ms:5000}")
+    public void watchConfigFile() {
+        Path configFile = configFile();
+        if (configFile == null || !Files.exists(configFile)) {
+            return;
+        }
+        try {
+            if (!Files.getLastModifiedTime(configFile).equals(lastModified)) {
+                log.info("Arquivo de configuração alterado: {}", configFile);
+                reload();
+            }
+        } catch (IOException e) {
+            log.warn("Erro ao verificar arquivo de configuração {}: {}", configFile, e.getMessage());
+        } catch (IllegalStateException e) {
+            // Só tenta de novo quando o arquivo for salvo outra vez
+            log.error(e.getMessage());
+        }
+    }
+
+    /**
+     * Relê o arquivo externo, religa as propriedades e retorna as que mudaram.
+     *
+     * @throws IllegalStateException se o arquivo não puder ser lido; a configuração atual é mantida
+     */
+    public synchronized Map<String, Object> reload() {
+        Map<String, Object> before = snapshot();
+
+        Path configFile = configFile();
+        MutablePropertySources sources = environment.getPropertySources();
+        if (configFile != null && Files.exists(configFile)) {
+            try {
+                lastModified = Files.getLastModifiedTime(configFile);
+                PropertySource<?> external = load(configFile);
+                if (sources.contains(PROPERTY_SOURCE_NAME)) {
+                    sources.replace(PROPERTY_SOURCE_NAME, external);
+                } else {
+                    sources.addFirst(external);
+                    removeStartupImport(sources, configFile);
+                }
+            } catch (IOException | RuntimeException e) {
+                // Arquivo inválido (ex.: salvo pela metade): mantém a configuração atual
+                lastError = "Erro ao carregar arquivo de configuração " + configFile + ": " + e.getMessage();
+                throw new IllegalStateException(lastError, e);
+            }
+        } else {
+            sources.remove(PROPERTY_SOURCE_NAME);
+        }
+
+        try {
+            rebind();
+        } catch (BindException e) {
+            lastError = "Erro ao aplicar configuração " + configFile + ": " + e.getMessage();
+            throw new IllegalStateException(lastError, e);
+        }
+
+        Map<String, Object> after = snapshot();
+        Map<String, Object> changes = new LinkedHashMap<>();
+        after.forEach((key, value) -> {
+            if (!Objects.equals(before.get(key), value)) {
+                changes.put(key, value);
+            }
+        });
+
+        lastReloadAt = LocalDateTime.now();
+        lastChanges = changes;
+        lastError = null;
+        if (changes.isEmpty()) {
+            log.info("Configuração recarregada, nenhuma propriedade alterada");
+        } else {
+            log.info("Configuração recarregada, propriedades alteradas: {}", changes);
+            eventPublisher.publishEvent(new ConfigReloadedEvent(this, changes));
+        }
+        return changes;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("config_file", fileMonitorConfig.getConfigFile());
+        status.put("config_file_loaded", environment.getPropertySources().contains(PROPERTY_SOURCE_NAME));
+        status.put("last_reload_at", lastReloadAt);
+        status.put("last_changes", lastChanges);
+        status.put("last_error", lastError);
+        return status;
+    }
+
+    /**
+     * Remove a cópia do arquivo carregada pelo spring.config.import na inicialização,
+     * senão uma propriedade apagada do arquivo voltaria ao valor antigo em vez do application.yml
+     */
+    private void removeStartupImport(MutablePropertySources sources, Path configFile) {
+        List<String> stale = new ArrayList<>();
+        for (PropertySource<?> source : sources) {
+            if (!PROPERTY_SOURCE_NAME.equals(source.getName()) && source.getName().contains(configFile.toString())) {
+                stale.add(source.getName());
+            }
+        }
+        stale.forEach(sources::remove);
+    }
+
+    /**
+     * Liga as propriedades em cópias e só então copia os valores para os beans em uso: o Binder
+     * esvazia e preenche listas no lugar, e quem estiver lendo (ex.: sinks no dispatcher) veria a
+     * lista vazia ou pela metade. Propriedades com erro de conversão não alteram nada.
+     */
+    private void rebind() {
+        FileMonitorConfig monitor = new FileMonitorConfig();
+        BeanUtils.copyProperties(fileMonitorConfig, monitor);
+        monitor.setSinks(new ArrayList<>(fileMonitorConfig.getSinks()));
+        ClientConfig remote = new ClientConfig();
+        BeanUtils.copyProperties(clientConfig, remote);
+
+        Binder binder = Binder.get(environment);
+        binder.bind("file.monitor", Bindable.ofInstance(monitor));
+        binder.bind("app-mercado.remote", Bindable.ofInstance(remote));
+
+        // O charset é compilado no layout na inicialização: mudar aqui só faria o status mentir
+        if (!Objects.equals(monitor.getCharset(), fileMonitorConfig.getCharset())) {
+            log.warn("file.monitor.charset alterado para {}, só vale após reiniciar; mantendo {}",
+                    monitor.getCharset(), fileMonitorConfig.getCharset());
+            monitor.setCharset(fileMonitorConfig.getCharset());
+        }
+
+        BeanUtils.copyProperties(monitor, fileMonitorConfig);
+        BeanUtils.copyProperties(remote, clientConfig);
+    }
+
+    private Map<String, Object> snapshot() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        snapshot(ConfigReloadedEvent.FILE_MONITOR, fileMonitorConfig, values);
+        snapshot(ConfigReloadedEvent.REMOTE, clientConfig, values);
+        return values;
+    }
+
+    private void snapshot(String prefix, Object config, Map<String, Object> values) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(config);
+        for (PropertyDescriptor descriptor : wrapper.getPropertyDescriptors()) {
+            String name = descriptor.getName();
+            if (!"class".equals(name) && wrapper.isReadableProperty(name) && wrapper.isWritableProperty(name)) {
+                Object value = wrapper.getPropertyValue(name);
+                // Copia coleções para a comparação não enxergar a própria instância alterada
+                values.put(prefix + name, value instanceof Iterable ? String.valueOf(value) : value);
+            }
+        }
+    }
+
+    private PropertySource<?> load(Path configFile) throws IOException {
+        String fileName = configFile.getFileName().toString();
+        PropertySourceLoader loader = fileName.endsWith(".properties")
+                ? new PropertiesPropertySourceLoader()
+                : new YamlPropertySourceLoader();
+
+        CompositePropertySource composite = new CompositePropertySource(PROPERTY_SOURCE_NAME);
+        for (PropertySource<?> source : loader.load(PROPERTY_SOURCE_NAME, new FileSystemResource(configFile))) {
+            composite.addPropertySource(source);
+        }
+        return composite;
+    }
+
+    private Path configFile() {
+        String configFile = fileMonitorConfig.getConfigFile();
+        return configFile == null || configFile.isBlank() ? null : Paths.get(configFile);
+    }
+}
@@ -0,0 +1,309 @@
+package com.mercado.filemonitor.service;
+
+import com.mercado.filemonitor.config.FileMonitorConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Coordena várias instâncias monitorando a mesma pasta de entrada.
+ * Um arquivo é reivindicado com um rename atômico para
+ * {@code <entrada>/.claims/<node-id>/<claim-id>/<caminho relativo à entrada>}: só uma instância
+ * consegue mover o arquivo, e ela passa a ser a única a processá-lo. O claim-id único permite
+ * reivindicar de novo um arquivo de mesmo nome enquanto o anterior ainda está em processamento.
+ * Cada instância renova um heartbeat ({@code .claims/<node-id>.heartbeat}) numa thread própria; se o
+ * heartbeat de um nó ficar mais velho que o lease, outra instância move para si os arquivos dele e os
+ * reprocessa (o reenvio ao remoto é seguro pelas chaves de idempotência dos lotes).
+ * Sem post-processing o arquivo é apagado ao fim do processamento (ver {@link #release(Path)}).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileClaimService {
+
+    public static final String CLAIMS_DIRECTORY = ".claims";
+    private static final String HEARTBEAT_EXTENSION = ".heartbeat";
+    private static final DateTimeFormatter CLAIM_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+
+    private final FileMonitorConfig config;
+
+    private String nodeId;
+    private ThreadPoolTaskScheduler heartbeatScheduler;
+
+    /**
+     * No modo tail o arquivo precisa ficar no lugar para continuar crescendo, então não há reivindicação
+     */
+    public boolean isEnabled() {
+        return config.isClusterEnabled() && !config.isTailMode();
+    }
+
+    public synchronized String getNodeId() {
+        if (nodeId == null) {
+            nodeId = config.getNodeId() == null || config.getNodeId().isBlank()
+                    ? defaultNodeId()
+                    : config.getNodeId().trim();
+        }
+        return nodeId;
+    }
+
+    /**
+     * Tenta reivindicar o arquivo; retorna o novo caminho (dentro do diretório do nó) se esta
+     * instância ganhou, ou vazio se outra instância já o levou
+     */
+    public Optional<Path> claim(Path file) {
+        Path claimDirectory = nodeDirectory().resolve(newClaimId());
+        Path target = claimDirectory.resolve(relativeToInput(file));
+        try {
+            Files.createDirectories(target.getParent());
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Arquivo {} reivindicado pelo nó {}", file.getFileName(), getNodeId());
+            return Optional.of(target);
+        } catch (NoSuchFileException | FileAlreadyExistsException e) {
+            deleteEmptyDirectories(target.getParent());
+            return Optional.empty();
+        } catch (AtomicMoveNotSupportedException e) {
+            log.error("Rename atômico não suportado em {}, a reivindicação de arquivos exige o mesmo sistema de arquivos",
+                    target.getParent());
+            deleteEmptyDirectories(target.getParent());
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Erro ao reivindicar arquivo {}: {}", file, e.getMessage());
+            deleteEmptyDirectories(target.getParent());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Caminho que o arquivo tinha na pasta de entrada antes de ser reivindicado (o próprio caminho
+     * para arquivos fora de .claims); usado para saber de qual subpasta ele veio
+     */
+    public Path originalPath(Path file) {
+        return Paths.get(config.getInputDirectory()).toAbsolutePath().resolve(relativeToInput(file));
+    }
+
+    /**
+     * Origem do arquivo: a subpasta da entrada onde ele chegou ("" para a raiz ou fora da entrada),
+     * inclusive para arquivos já movidos para .claims
+     */
+    public String sourceOf(Path file) {
+        Path parent = relativeToInput(file).getParent();
+        return parent == null ? "" : parent.toString();
+    }
+
+    /**
+     * Nome do arquivo com a origem na frente (lojaA/txitens.txt vira lojaA__txitens.txt), usado nos
+     * artefatos de saída: cada loja manda o próprio txitens.txt e tem os próprios artefatos e retenção
+     */
+    public String sourceFileName(Path file) {
+        Path relative = relativeToInput(file);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < relative.getNameCount() - 1; i++) {
+            name.append(relative.getName(i)).append(i < relative.getNameCount() - 2 ? "_" : "__");
+        }
+        return name.append(file.getFileName()).toString();
+    }
+
+    /**
+     * Fim do processamento sem post-processing: apaga o arquivo reivindicado. Ele não pode voltar
+     * para a entrada (seria reivindicado de novo) nem ficar no diretório do nó (seria retomado);
+     * para guardar o arquivo processado use post-processing move ou archive.
+     */
+    public void release(Path claimed) {
+        try {
+            Files.deleteIfExists(claimed);
+            log.debug("Arquivo reivindicado {} apagado após o processamento", claimed);
+        } catch (IOException e) {
+            log.warn("Erro ao apagar arquivo reivindicado {}: {}", claimed, e.getMessage());
+        }
+        deleteEmptyDirectories(claimed.getParent());
+    }
+
+    /**
+     * Arquivos que já são deste nó (ex.: reinício após queda com o mesmo node-id)
+     */
+    public List<Path> ownClaims() {
+        return listFiles(nodeDirectory());
+    }
+
+    /**
+     * Agenda o heartbeat numa thread só dele: no agendador padrão ele dividiria a thread com o polling
+     * e a drenagem do outbox (chamadas HTTP bloqueantes) e poderia atrasar além do lease, fazendo outro
+     * nó assumir arquivos que este ainda processa. O intervalo é relido a cada execução.
+     */
+    public synchronized void startHeartbeat(Consumer<Path> onTakenOver) {
+        if (heartbeatScheduler != null) {
+            return;
+        }
+        heartbeatScheduler = new ThreadPoolTaskScheduler();
+        heartbeatScheduler.setPoolSize(1);
+        heartbeatScheduler.setThreadNamePrefix("claim-heartbeat-");
+        heartbeatScheduler.initialize();
+        heartbeatScheduler.schedule(() -> heartbeatAndTakeOver(onTakenOver), context -> {
+            Instant lastCompletion = context.lastCompletion();
+            return (lastCompletion == null ? Instant.now() : lastCompletion)
+                    .plusMillis(config.getClaimHeartbeatIntervalMs());
+        });
+    }
+
+    @PreDestroy
+    public synchronized void stopHeartbeat() {
+        if (heartbeatScheduler != null) {
+            heartbeatScheduler.shutdown();
+        }
+    }
+
+    /**
+     * Renova o heartbeat deste nó e assume os arquivos de nós com lease expirado
+     */
+    public void heartbeatAndTakeOver(Consumer<Path> onTakenOver) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            Path heartbeat = claimsRoot().resolve(getNodeId() + HEARTBEAT_EXTENSION);
+            Files.createDirectories(heartbeat.getParent());
+            if (Files.exists(heartbeat)) {
+                Files.setLastModifiedTime(heartbeat, FileTime.from(Instant.now()));
+            } else {
+                Files.createFile(heartbeat);
+            }
+        } catch (IOException e) {
+            log.warn("Erro ao renovar heartbeat do nó {}: {}", getNodeId(), e.getMessage());
+            return;
+        }
+
+        try (DirectoryStream<Path> nodes = Files.newDirectoryStream(claimsRoot(), Files::isDirectory)) {
+            for (Path node : nodes) {
+                String otherNode = node.getFileName().toString();
+                if (otherNode.equals(getNodeId()) || !isLeaseExpired(otherNode)) {
+                    continue;
+                }
+                for (Path file : listFiles(node)) {
+                    if (isRecent(file)) {
+                        // Reivindicado ou alterado há pouco: o nó pode estar vivo com o heartbeat atrasado
+                        continue;
+                    }
+                    claim(file).ifPresent(claimed -> {
+                        log.warn("Lease do nó {} expirado, arquivo {} assumido pelo nó {}",
+                                otherNode, file.getFileName(), getNodeId());
+                        deleteEmptyDirectories(file.getParent());
+                        onTakenOver.accept(claimed);
+                    });
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Erro ao verificar leases em {}: {}", claimsRoot(), e.getMessage());
+        }
+    }
+
+    private boolean isLeaseExpired(String otherNode) throws IOException {
+        Path heartbeat = claimsRoot().resolve(otherNode + HEARTBEAT_EXTENSION);
+        Path reference = Files.exists(heartbeat) ? heartbeat : claimsRoot().resolve(otherNode);
+        long age = System.currentTimeMillis() - Files.getLastModifiedTime(reference).toMillis();
+        return age > config.getClaimLeaseTimeoutMs();
+    }
+
+    /**
+     * Arquivo ou seu diretório de claim com alteração mais nova que o lease
+     */
+    private boolean isRecent(Path file) throws IOException {
+        long newest = Math.max(Files.getLastModifiedTime(file).toMillis(),
+                Files.getLastModifiedTime(file.getParent()).toMillis());
+        return System.currentTimeMillis() - newest <= config.getClaimLeaseTimeoutMs();
+    }
+
+    /**
+     * Arquivos reivindicados de um nó, em qualquer profundidade (claim-id e subpastas de origem)
+     */
+    private List<Path> listFiles(Path directory) {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (Stream<Path> stream = Files.walk(directory)) {
+            stream.filter(Files::isRegularFile).forEach(files::add);
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Erro ao listar {}: {}", directory, e.getMessage());
+        }
+        return files;
+    }
+
+    /**
+     * Caminho relativo à entrada; para um arquivo em .claims/<nó>/<claim-id>/, o caminho que ele tinha
+     */
+    private Path relativeToInput(Path file) {
+        Path absolute = file.toAbsolutePath().normalize();
+        Path root = claimsRoot().toAbsolutePath().normalize();
+        if (absolute.startsWith(root)) {
+            Path inClaims = root.relativize(absolute);
+            // <nó>/<claim-id>/<caminho original>
+            return inClaims.getNameCount() > 2 ? inClaims.subpath(2, inClaims.getNameCount()) : absolute.getFileName();
+        }
+        Path inputDir = Paths.get(config.getInputDirectory()).toAbsolutePath().normalize();
+        return absolute.startsWith(inputDir) ? inputDir.relativize(absolute) : absolute.getFileName();
+    }
+
+    /**
+     * Remove os diretórios de claim que ficaram vazios, subindo até o diretório do nó (exclusive)
+     */
+    private void deleteEmptyDirectories(Path directory) {
+        Path root = claimsRoot().toAbsolutePath().normalize();
+        Path current = directory.toAbsolutePath().normalize();
+        while (current.startsWith(root) && current.getNameCount() > root.getNameCount() + 1) {
+            try {
+                Files.delete(current);
+            } catch (IOException e) {
+                // Não vazio (ou já removido por outra instância)
+                return;
+            }
+            current = current.getParent();
+        }
+    }
+
+    private String newClaimId() {
+        return LocalDateTime.now().format(CLAIM_ID_FORMAT) + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private Path claimsRoot() {
+        return Paths.get(config.getInputDirectory()).resolve(CLAIMS_DIRECTORY);
+    }
+
+    private Path nodeDirectory() {
+        return claimsRoot().resolve(getNodeId());
+    }
+
+    private String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            host = "node";
+        }
+        return host + "-" + ManagementFactory.getRuntimeMXBean().getPid();
+    }
+}
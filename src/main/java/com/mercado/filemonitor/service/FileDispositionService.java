@@ -0,0 +1,110 @@
+package com.mercado.filemonitor.service;
+
+import com.mercado.filemonitor.config.FileMonitorConfig;
+import com.mercado.filemonitor.entity.FileRecord;
+import com.mercado.filemonitor.util.OutputFiles;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+/**
+ * Tira da pasta de entrada o arquivo já processado, para a varredura e o watch só enxergarem
+ * trabalho pendente. Sucesso vai para {@code processed-directorio}, erro para {@code failed-directorio},
+ * ambos particionados por data (yyyy/MM/dd); em "archive" o arquivo é gravado em gzip.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileDispositionService {
+
+    public static final String POST_PROCESSING_NONE = "none";
+    public static final String POST_PROCESSING_MOVE = "move";
+    public static final String POST_PROCESSING_ARCHIVE = "archive";
+
+    private static final DateTimeFormatter PARTITION_FORMAT = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+    private static final DateTimeFormatter PREFIX_FORMAT = DateTimeFormatter.ofPattern("HHmmssSSS");
+    private static final String GZIP_EXTENSION = ".gz";
+
+    private final FileMonitorConfig config;
+    private final FileRecordService fileRecordService;
+    private final OutputFiles outputFiles;
+
+    /**
+     * Desligado no modo tail: o arquivo continua recebendo linhas na pasta de entrada
+     */
+    public boolean isEnabled() {
+        return !POST_PROCESSING_NONE.equalsIgnoreCase(config.getPostProcessing()) && !config.isTailMode();
+    }
+
+    /**
+     * Move (ou arquiva) o arquivo conforme o resultado do processamento e grava o destino no registro.
+     * Retorna o novo caminho, ou vazio se o arquivo ficou onde estava.
+     */
+    public Optional<Path> dispose(Path file, FileRecord fileRecord) {
+        if (!isEnabled() || !Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+
+        boolean failed = fileRecord == null || fileRecord.getStatus() == FileRecord.ProcessingStatus.ERROR;
+        LocalDateTime now = LocalDateTime.now();
+        Path directory = Paths.get(failed ? config.getFailedDirectory() : config.getProcessedDirectory())
+                .resolve(now.format(PARTITION_FORMAT));
+        // O mesmo nome chega todo dia (txitens.txt): o horário no prefixo evita sobrescrever
+        String name = now.format(PREFIX_FORMAT) + "_" + file.getFileName();
+
+        try {
+            Files.createDirectories(directory);
+            Path target = POST_PROCESSING_ARCHIVE.equalsIgnoreCase(config.getPostProcessing())
+                    ? archive(file, directory.resolve(name + GZIP_EXTENSION))
+                    : move(file, directory.resolve(name));
+
+            if (fileRecord != null) {
+                // A cópia do processamento pode estar desatualizada (drenagem do outbox): grava só o destino
+                String archivedPath = target.toString();
+                fileRecord.setArchivedPath(archivedPath);
+                fileRecordService.update(fileRecord.getId(), current -> current.setArchivedPath(archivedPath));
+            }
+            log.debug("Arquivo {} movido para {}", file.getFileName(), target);
+            return Optional.of(target);
+        } catch (IOException e) {
+            log.warn("Erro ao mover arquivo processado {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Path move(Path file, Path target) throws IOException {
+        try {
+            return Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Destino em outro sistema de arquivos: cópia seguida de remoção
+            return Files.move(file, target);
+        }
+    }
+
+    /**
+     * Comprime num arquivo temporário ao lado do destino e só então o publica e remove a entrada
+     */
+    private Path archive(Path file, Path target) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = outputFiles.openGzip(temp)) {
+            Files.copy(file, out);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(file);
+        return target;
+    }
+}
@@ -4,23 +4,29 @@ import com.mercado.filemonitor.config.FileMonitorConfig;
 import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import com.mercado.filemonitor.config.ConfigReloadedEvent;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class FileMonitorService {
+public class FileMonitorService implements SchedulingConfigurer {
     private final FileMonitorConfig config;
     private final FileProcessingService fileProcessingService;
+    private final FileProcessingScheduler fileProcessingScheduler;
+    private final FileClaimService fileClaimService;
+    private final FileDispositionService fileDispositionService;
 
-    private WatchService watchService;
+    private volatile WatchService watchService;
     private final Set<String> processingFiles = ConcurrentHashMap.newKeySet();
 
     @EventListener(ApplicationReadyEvent.class)
@@ -28,6 +34,11 @@ public class FileMonitorService {
         try {
             setupDirectories();
             startWatchService();
+            if (config.isTailMode() && (config.isClusterEnabled()
+                    || !FileDispositionService.POST_PROCESSING_NONE.equalsIgnoreCase(config.getPostProcessing()))) {
+                log.warn("Modo tail ativo: post-processing e reivindicação entre instâncias ficam desligados");
+            }
+            resumeOwnClaims();
             scanExistingFiles();
             log.info("Monitoramento de arquivos iniciado para: {}", config.getInputDirectory());
         } catch (Exception e) {
@@ -35,6 +46,42 @@ public class FileMonitorService {
         }
     }
 
+    /**
+     * O intervalo de polling e o do heartbeat são lidos a cada execução, então uma mudança na configuração
+     * vale no próximo ciclo. O heartbeat roda fora do agendador padrão (ver FileClaimService).
+     */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addTriggerTask(this::pollForFileChanges, context -> {
+            Instant lastCompletion = context.lastCompletion();
+            return (lastCompletion == null ? Instant.now() : lastCompletion)
+                    .plusMillis(config.getPollingInterval());
+        });
+        fileClaimService.startHeartbeat(this::processClaimedFileAsync);
+    }
+
+    /**
+     * Troca de diretório de entrada ou padrão de arquivo: reabre o watch e escaneia o novo diretório
+     */
+    @EventListener
+    public synchronized void onConfigReloaded(ConfigReloadedEvent event) {
+        if (!event.changed(ConfigReloadedEvent.FILE_MONITOR + "inputDirectory",
+                ConfigReloadedEvent.FILE_MONITOR + "filePattern")) {
+            return;
+        }
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+            setupDirectories();
+            startWatchService();
+            scanExistingFiles();
+            log.info("Monitoramento reconfigurado para: {} ({})", config.getInputDirectory(), config.getFilePattern());
+        } catch (IOException e) {
+            log.error("Erro ao reconfigurar monitoramento de arquivos: {}", e.getMessage(), e);
+        }
+    }
+
     private void setupDirectories() throws IOException {
         Path inputDir = Paths.get(config.getInputDirectory());
         Path outputDir = Paths.get(config.getOutputDirectory());
@@ -55,13 +102,19 @@ public class FileMonitorService {
 
     }
 
-    @Scheduled(fixedDelayString = "${file.monitor.polling-interval:5000}")
     public void pollForFileChanges() {
+        WatchService watchService = this.watchService;
         if (watchService == null) {
             return;
         }
 
-        WatchKey key = watchService.poll();
+        WatchKey key;
+        try {
+            key = watchService.poll();
+        } catch (ClosedWatchServiceException e) {
+            // Watch trocado por uma recarga de configuração
+            return;
+        }
         if (key != null) {
             for (WatchEvent<?> event : key.pollEvents()) {
                 WatchEvent.Kind<?> kind = event.kind();
@@ -90,6 +143,13 @@ public class FileMonitorService {
             PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + config.getFilePattern());
 
             Files.walkFileTree(inputDir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return !dir.equals(inputDir) && isExcludedDirectory(dir)
+                            ? FileVisitResult.SKIP_SUBTREE
+                            : FileVisitResult.CONTINUE;
+                }
+
                 @Override
                 public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
                     if (matcher.matches(file.getFileName()) && shouldProcessFile(file)) {
@@ -104,6 +164,23 @@ public class FileMonitorService {
         }
     }
 
+    /**
+     * Diretórios ocultos (.claims) e os de saída/processados que ficam dentro da entrada não são varridos
+     */
+    private boolean isExcludedDirectory(Path dir) {
+        if (dir.getFileName().toString().startsWith(".")) {
+            return true;
+        }
+        Path normalized = dir.toAbsolutePath().normalize();
+        for (String excluded : List.of(config.getOutputDirectory(), config.getProcessedDirectory(),
+                config.getFailedDirectory())) {
+            if (excluded != null && normalized.equals(Paths.get(excluded).toAbsolutePath().normalize())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private boolean shouldProcessFile(Path filePath) {
         if (!Files.exists(filePath) || Files.isDirectory(filePath)) {
             return false;
@@ -116,8 +193,8 @@ public class FileMonitorService {
             return false;
         }
 
-        // Evitar processamento duplo
-        if (processingFiles.contains(fileName)) {
+        // Evitar processamento duplo (pelo caminho: subpastas diferentes podem ter arquivos de mesmo nome)
+        if (processingFiles.contains(filePath.toString())) {
             log.debug("Arquivo {} já está sendo processado", fileName);
             return false;
         }
@@ -126,16 +203,56 @@ public class FileMonitorService {
         return fileProcessingService.shouldProcessFile(filePath);
     }
 
+    /**
+     * Em cluster, o arquivo só é processado se esta instância ganhar o rename para o seu diretório de claims
+     */
     private void processFileAsync(Path filePath) {
-        String fileName = filePath.getFileName().toString();
+        if (!fileClaimService.isEnabled()) {
+            submit(filePath, false);
+            return;
+        }
+        fileClaimService.claim(filePath).ifPresent(this::processClaimedFileAsync);
+    }
 
-        if (processingFiles.add(fileName)) {
+    private void processClaimedFileAsync(Path claimed) {
+        submit(claimed, true);
+    }
+
+    /**
+     * Arquivos que ficaram no diretório deste nó numa execução anterior (mesmo node-id)
+     */
+    private void resumeOwnClaims() {
+        if (!fileClaimService.isEnabled()) {
+            return;
+        }
+        for (Path claimed : fileClaimService.ownClaims()) {
+            log.info("Retomando arquivo reivindicado anteriormente pelo nó {}: {}", fileClaimService.getNodeId(), claimed);
+            processClaimedFileAsync(claimed);
+        }
+    }
+
+    private void submit(Path filePath, boolean release) {
+        String key = filePath.toString();
+
+        if (processingFiles.add(key)) {
             log.info("Iniciando processamento assíncrono do arquivo: {}", filePath);
 
             try {
-                fileProcessingService.processFile(filePath);
-            } finally {
-                processingFiles.remove(fileName);
+                fileProcessingScheduler.submit(filePath).whenComplete((fileRecord, error) -> {
+                    fileDispositionService.dispose(filePath, fileRecord);
+                    // Com post-processing o arquivo já saiu; se o move falhou ele fica com o nó, não é apagado
+                    if (release && !fileDispositionService.isEnabled()) {
+                        fileClaimService.release(filePath);
+                    }
+                    processingFiles.remove(key);
+                    // Modo tail: linhas anexadas durante o processamento tiveram o evento ignorado
+                    if (config.isTailMode() && shouldProcessFile(filePath)) {
+                        processFileAsync(filePath);
+                    }
+                });
+            } catch (RuntimeException e) {
+                processingFiles.remove(key);
+                throw e;
             }
         }
     }
@@ -1,95 +1,255 @@
 package com.mercado.filemonitor.service;
 
+import com.mercado.filemonitor.config.FileMonitorConfig;
+import com.mercado.filemonitor.dto.ParseResult;
 import com.mercado.filemonitor.dto.PositionalRecord;
+import com.mercado.filemonitor.util.ByteLineReader;
+import com.mercado.filemonitor.util.FileValidator;
+import com.mercado.filemonitor.util.LogSampler;
+import com.mercado.filemonitor.util.OutputFiles;
+import com.mercado.filemonitor.util.RecordLayout;
+import com.mercado.filemonitor.util.RejectedLinesWriter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.math.BigDecimal;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
-
-import static com.mercado.filemonitor.util.Constants.*;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class FileParserService {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final int ESTIMATE_SAMPLE_BYTES = 8192;
+    private static final int PROGRESS_INTERVAL = 10_000;
+    private static final int READ_BUFFER_SIZE = 256 * 1024;
+    private static final LogSampler LINE_LOG_SAMPLER = new LogSampler(20, 1000);
+
+    public static final String PARSE_MODE_TOLERANT = "tolerant";
+    private static final String REJECTS_EXTENSION = ".rejects";
+
+    private final RecordLayout recordLayout;
+    private final FileValidator fileValidator;
+    private final OutputFiles outputFiles;
+    private final FileMonitorConfig config;
+    private final FileClaimService fileClaimService;
 
     public List<PositionalRecord> parsePositionalFile(Path filePath) throws IOException {
-        log.info("Iniciando parse do arquivo: {}", filePath);
+        return parsePositionalFile(filePath, ProgressListener.NONE);
+    }
+
+    /**
+     * Faz o parse do arquivo completo, reportando o andamento e respeitando pedidos de cancelamento
+     */
+    public List<PositionalRecord> parsePositionalFile(Path filePath, ProgressListener listener) throws IOException {
+        return parse(filePath, listener).getRecords();
+    }
+
+    /**
+     * Faz o parse do arquivo completo. No modo tolerante ({@code file.monitor.parse-mode: tolerant})
+     * as linhas inválidas vão para um arquivo .rejects com os motivos e o parse continua, até
+     * {@code max-rejected-lines}; no modo estrito a primeira linha inválida falha o arquivo.
+     */
+    public ParseResult parse(Path filePath, ProgressListener listener) throws IOException {
+        return parse(filePath, 0, false, listener);
+    }
+
+    /**
+     * Parse a partir de {@code fromOffset} (início de uma linha). Com {@code completeLinesOnly} a última
+     * linha sem quebra é deixada para o próximo parse, pois o arquivo ainda pode estar sendo escrito.
+     */
+    public ParseResult parse(Path filePath, long fromOffset, boolean completeLinesOnly, ProgressListener listener)
+            throws IOException {
+        log.debug("Iniciando parse do arquivo: {} (offset {})", filePath, fromOffset);
 
-        List<String> lines = Files.readAllLines(filePath);
         List<PositionalRecord> records = new ArrayList<>();
+        if (!isTolerant()) {
+            long endOffset = readRecords(filePath, fromOffset, completeLinesOnly, Integer.MAX_VALUE, listener,
+                    records::add, null);
+            log.debug("Parse concluído. {} registros processados", records.size());
+            return ParseResult.builder().records(records).endOffset(endOffset).build();
+        }
 
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i);
-            try {
-                PositionalRecord record = parseLine(line, i + 1);
-                if (record != null) {
-                    records.add(record);
-                }
-            } catch (Exception e) {
-                log.error("Erro ao processar linha {} do arquivo {}: {}", i + 1, filePath, e.getMessage());
-                throw new RuntimeException("Erro na linha " + (i + 1) + ": " + e.getMessage(), e);
+        RejectedLinesWriter rejects = new RejectedLinesWriter(
+                rejectsPath(filePath), outputFiles, recordLayout.getDecoder().getCharset());
+        long endOffset;
+        try {
+            endOffset = readRecords(filePath, fromOffset, completeLinesOnly, Integer.MAX_VALUE, listener,
+                    records::add, rejects);
+        } finally {
+            rejects.close();
+            if (rejects.getCount() > 0) {
+                log.warn("{} linha(s) rejeitada(s) em {}: {}", rejects.getCount(), filePath, rejects.getPath());
+                outputFiles.applyRetention(rejects.getPath().getParent(), baseName(filePath) + "_", REJECTS_EXTENSION);
             }
         }
 
-        log.info("Parse concluído. {} registros processados", records.size());
+        log.debug("Parse concluído. {} registros processados, {} rejeitados", records.size(), rejects.getCount());
+        return ParseResult.builder()
+                .records(records)
+                .rejectedCount(rejects.getCount())
+                .rejectsPath(rejects.getPath())
+                .endOffset(endOffset)
+                .build();
+    }
+
+    /**
+     * Faz o parse apenas das primeiras {@code limit} linhas com registro, sem ler o restante do arquivo
+     */
+    public List<PositionalRecord> parsePositionalFileHead(Path filePath, int limit) throws IOException {
+        List<PositionalRecord> records = new ArrayList<>(Math.min(limit, 1024));
+        readRecords(filePath, 0, false, limit, ProgressListener.NONE, records::add, null);
         return records;
     }
 
-    private PositionalRecord parseLine(String line, int lineNumber) {
-        if (line == null || line.trim().isEmpty()) {
-            log.debug("Linha {} vazia, ignorando", lineNumber);
+    /**
+     * Estima o total de registros pelo tamanho do arquivo dividido pelo tamanho da primeira linha
+     */
+    public long estimateRecordCount(Path filePath) throws IOException {
+        long fileSize = Files.size(filePath);
+        if (fileSize == 0) {
+            return 0;
+        }
+
+        byte[] head = new byte[ESTIMATE_SAMPLE_BYTES];
+        int read;
+        try (InputStream in = Files.newInputStream(filePath)) {
+            read = in.readNBytes(head, 0, head.length);
+        }
+
+        for (int i = 0; i < read; i++) {
+            if (head[i] == '\n') {
+                return (fileSize + i) / (i + 1);
+            }
+        }
+        // Sem quebra de linha na amostra: arquivo de um único registro (ou linha maior que a amostra)
+        return read < head.length ? 1 : fileSize / read;
+    }
+
+    /**
+     * Lê o arquivo em bytes e decodifica só os campos do layout, no charset configurado.
+     * Bytes inválidos no charset viram caractere de substituição em vez de falhar o arquivo inteiro.
+     * Com {@code rejects} informado as linhas inválidas são gravadas nele; no modo tolerante sem
+     * arquivo (preview) elas são apenas ignoradas. Retorna a posição logo após a última linha lida;
+     * os números de linha e o andamento em bytes contam a partir de {@code fromOffset}.
+     */
+    private long readRecords(Path filePath, long fromOffset, boolean completeLinesOnly, int limit,
+                             ProgressListener listener, Consumer<PositionalRecord> consumer,
+                             RejectedLinesWriter rejects) throws IOException {
+        boolean tolerant = isTolerant();
+        int maxRejected = config.getMaxRejectedLines();
+        FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ).position(fromOffset);
+        try (ByteLineReader reader = new ByteLineReader(
+                Channels.newInputStream(channel), READ_BUFFER_SIZE, fromOffset, completeLinesOnly)) {
+            int lineNumber = 0;
+            int count = 0;
+            while (count < limit && reader.next()) {
+                lineNumber++;
+                if (lineNumber % PROGRESS_INTERVAL == 0) {
+                    if (listener.isCancelled()) {
+                        throw new CancellationException("Parse cancelado na linha " + lineNumber);
+                    }
+                    listener.onProgress(lineNumber, reader.position() - fromOffset);
+                }
+                try {
+                    PositionalRecord record = parseLine(reader.buffer(), reader.start(), reader.end(), lineNumber);
+                    if (record != null) {
+                        consumer.accept(record);
+                        count++;
+                    }
+                } catch (Exception e) {
+                    if (!tolerant) {
+                        log.error("Erro ao processar linha {} do arquivo {}: {}", lineNumber, filePath, e.getMessage());
+                        throw new RuntimeException("Erro na linha " + lineNumber + ": " + e.getMessage(), e);
+                    }
+                    if (rejects != null) {
+                        reject(rejects, reader, lineNumber, e);
+                        if (maxRejected >= 0 && rejects.getCount() > maxRejected) {
+                            throw new IllegalStateException("Arquivo excedeu o limite de " + maxRejected
+                                    + " linhas rejeitadas (última na linha " + lineNumber + ")");
+                        }
+                    }
+                }
+            }
+            listener.onProgress(lineNumber, reader.position() - fromOffset);
+            return reader.position();
+        }
+    }
+
+    /**
+     * Registra a linha com os motivos do FileValidator (ou a mensagem do parse, se o validador não apontar nenhum)
+     */
+    private void reject(RejectedLinesWriter rejects, ByteLineReader reader, int lineNumber, Exception e)
+            throws IOException {
+        FileValidator.ValidationResult validation =
+                fileValidator.validateLine(reader.buffer(), reader.start(), reader.end(), lineNumber);
+        List<String> reasons = validation.errors.isEmpty() ? List.of(String.valueOf(e.getMessage())) : validation.errors;
+        if (log.isDebugEnabled() && LINE_LOG_SAMPLER.tryAcquire()) {
+            log.debug("Linha {} rejeitada: {}", lineNumber, reasons);
+        }
+        rejects.write(lineNumber, reasons, reader.buffer(), reader.start(), reader.end());
+    }
+
+    private boolean isTolerant() {
+        return PARSE_MODE_TOLERANT.equalsIgnoreCase(config.getParseMode());
+    }
+
+    private Path rejectsPath(Path filePath) {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        return outputFiles.resolve(Paths.get(config.getOutputDirectoryRejects()),
+                String.format("%s_%s%s", baseName(filePath), timestamp, REJECTS_EXTENSION));
+    }
+
+    private String baseName(Path filePath) {
+        // Com a origem na frente, como os demais artefatos do arquivo
+        return fileClaimService.sourceFileName(filePath).replaceAll("\\.[^.]+$", ""); // Remove extensão
+    }
+
+    private PositionalRecord parseLine(byte[] line, int start, int end, int lineNumber) {
+        if (RecordLayout.isBlank(line, start, end)) {
+            if (log.isDebugEnabled() && LINE_LOG_SAMPLER.tryAcquire()) {
+                log.debug("Linha {} vazia, ignorando", lineNumber);
+            }
             return null;
         }
 
-        // Validar tamanho mínimo da linha (agora com campo categoria)
-        if (line.length() < 97) {
-            throw new IllegalArgumentException("Linha deve ter pelo menos 97 caracteres. Atual: " + line.length());
+        // Validar tamanho mínimo da linha (em bytes)
+        if (end - start < recordLayout.getMinLineLength()) {
+            throw new IllegalArgumentException("Linha deve ter pelo menos " + recordLayout.getMinLineLength()
+                    + " caracteres. Atual: " + (end - start));
         }
 
-        // Debug: mostrar campos extraídos
-        if (log.isDebugEnabled()) {
-            log.debug("Linha {}: '{}'", lineNumber, line);
-            log.debug("  TipoProduto: '{}'", extractField(line, INICIO_CAMPO_TIPO_PRODUTO, INICIO_CAMPO_TIPO_PRODUTO + CAMPO_TIPO_PRODUTO));
-            log.debug("  Código: '{}'", extractField(line, INICIO_CAMPO_CODIGO, INICIO_CAMPO_CODIGO + CAMPO_CODIGO));
-            log.debug("  Nome: '{}'", extractField(line, INICIO_CAMPO_NOME, INICIO_CAMPO_NOME + CAMPO_NOME));
-            log.debug("  Valor: '{}'", extractField(line, INICIO_CAMPO_VALOR, INICIO_CAMPO_VALOR + CAMPO_VALOR));
-            log.debug("  Categoria: '{}'", extractField(line, INICIO_CAMPO_CATEGORIA, INICIO_CAMPO_CATEGORIA + CAMPO_CATEGORIA));
-            log.debug("  DiasValidade: '{}'", extractField(line, INICIO_CAMPO_DIAS_VALIDADE, INICIO_CAMPO_DIAS_VALIDADE + CAMPO_DIAS_VALIDADE));
-            log.debug("  Obs: '{}'", line.length() > INICIO_CAMPO_OBS ? extractField(line, INICIO_CAMPO_OBS, Math.min(line.length(), INICIO_CAMPO_OBS + CAMPO_OBS)) : "");
-       }
+        // Debug: mostrar campos extraídos (amostrado, para não inundar o log em arquivos grandes)
+        if (log.isDebugEnabled() && LINE_LOG_SAMPLER.tryAcquire()) {
+            log.debug("Linha {}: '{}'", lineNumber, recordLayout.decodeLine(line, start, end));
+            for (RecordLayout.Field field : recordLayout.getFields()) {
+                log.debug("  {}: '{}'", field.getName(), field.extract(line, start, end));
+            }
+        }
 
         try {
-            return PositionalRecord.builder()
-                    .codigo(extractField(line, INICIO_CAMPO_CODIGO, INICIO_CAMPO_CODIGO + CAMPO_CODIGO).trim())           // pos 1-10
-                    .nome(extractField(line, INICIO_CAMPO_NOME, INICIO_CAMPO_NOME + CAMPO_NOME).trim())            // pos 11-50
-                    .categoria(extractField(line, INICIO_CAMPO_CATEGORIA, INICIO_CAMPO_CATEGORIA + CAMPO_CATEGORIA).trim())       // pos 51-60 (NOVO)
-                    .valor(parseDecimal(extractField(line, INICIO_CAMPO_VALOR, INICIO_CAMPO_VALOR + CAMPO_VALOR).trim()))       // pos 80-95 (AJUSTADO)
-                    .tipoProduto(extractField(line, INICIO_CAMPO_TIPO_PRODUTO, INICIO_CAMPO_TIPO_PRODUTO + CAMPO_TIPO_PRODUTO).trim())          // pos 96-97 (AJUSTADO)
-                    .observacoes(line.length() > INICIO_CAMPO_OBS ? extractField(line, INICIO_CAMPO_OBS, Math.min(line.length(), INICIO_CAMPO_OBS + CAMPO_OBS)).trim() : "") // pos 98-160 (AJUSTADO)
-                    .build();
+            return recordLayout.parse(line, start, end);
         } catch (Exception e) {
             throw new RuntimeException("Erro ao parsear campos da linha: " + e.getMessage(), e);
         }
     }
 
-    private String extractField(String line, int start, int end) {
-        if (start >= line.length()) {
-            return "";
-        }
-        end = Math.min(end, line.length());
-        return line.substring(start, end);
-    }
-
     private LocalDate parseDate(String dateStr) {
         if (dateStr.isEmpty()) {
             return null;
@@ -100,27 +260,4 @@ public class FileParserService {
             throw new IllegalArgumentException("Data inválida: " + dateStr + ". Formato esperado: yyyyMMdd");
         }
     }
-
-    private BigDecimal parseDecimal(String valueStr) {
-        if (valueStr.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-        try {
-            // Remove espaços e converte assumindo 2 casas decimais implícitas
-            String cleanValue = valueStr.replaceAll("\\s", "");
-            if (cleanValue.isEmpty()) {
-                return BigDecimal.ZERO;
-            }
-
-            // Se não tem ponto decimal, assume que os 2 últimos dígitos são decimais
-            if (!cleanValue.contains(".") && cleanValue.length() > 2) {
-                int len = cleanValue.length();
-                cleanValue = cleanValue.substring(0, len - 2) + "." + cleanValue.substring(len - 2);
-            }
-
-            return new BigDecimal(cleanValue);
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Valor numérico inválido: " + valueStr);
-        }
-    }
 }
@@ -0,0 +1,268 @@
+package com.mercado.filemonitor.service;
+
+import com.mercado.filemonitor.config.ConfigReloadedEvent;
+import com.mercado.filemonitor.config.FileMonitorConfig;
+import com.mercado.filemonitor.entity.FileRecord;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fila dos arquivos detectados pelo monitor, na frente do FileProcessingService.
+ * Arquivos até {@code small-file-max-bytes} vão para a faixa rápida; os maiores só ocupam até
+ * {@code large-file-max-workers} workers, então sempre sobram workers para as atualizações pequenas.
+ * Dentro de cada faixa as origens (subpastas da entrada) são atendidas em rodízio e, em cada origem,
+ * o menor arquivo primeiro. Quem espera mais que {@code scheduler-max-wait-ms} passa à frente,
+ * inclusive um arquivo grande diante de pequenos, o que impede inanição.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileProcessingScheduler {
+
+    private final FileProcessingService fileProcessingService;
+    private final FileMonitorConfig config;
+    private final FileClaimService fileClaimService;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Lane smallLane = new Lane();
+    private final Lane largeLane = new Lane();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Thread> workers = new ArrayList<>();
+    private int running;
+    private int runningLarge;
+    private volatile boolean shutdown;
+
+    private static final class Task {
+        private final Path filePath;
+        private final String source;
+        private final long size;
+        private final long seq;
+        private final long enqueuedAt = System.currentTimeMillis();
+        private final CompletableFuture<FileRecord> future = new CompletableFuture<>();
+        // Faixa decidida ao enfileirar: small-file-max-bytes pode mudar numa recarga enquanto a tarefa espera
+        private final boolean large;
+
+        private Task(Path filePath, String source, long size, long seq, boolean large) {
+            this.filePath = filePath;
+            this.source = source;
+            this.size = size;
+            this.seq = seq;
+            this.large = large;
+        }
+    }
+
+    /**
+     * Tarefas de uma faixa: por origem, ordenadas por tamanho, mais a ordem de chegada para o envelhecimento
+     */
+    private static final class Lane {
+        private final Map<String, PriorityQueue<Task>> bySource = new HashMap<>();
+        private final ArrayDeque<String> rotation = new ArrayDeque<>();
+        private final LinkedHashSet<Task> arrival = new LinkedHashSet<>();
+
+        void add(Task task) {
+            PriorityQueue<Task> queue = bySource.get(task.source);
+            if (queue == null) {
+                queue = new PriorityQueue<>(Comparator.<Task>comparingLong(t -> t.size).thenComparingLong(t -> t.seq));
+                bySource.put(task.source, queue);
+                rotation.addLast(task.source);
+            }
+            queue.add(task);
+            arrival.add(task);
+        }
+
+        boolean isEmpty() {
+            return arrival.isEmpty();
+        }
+
+        int size() {
+            return arrival.size();
+        }
+
+        boolean hasAged(long now, long maxWaitMs) {
+            return !arrival.isEmpty() && now - arrival.iterator().next().enqueuedAt >= maxWaitMs;
+        }
+
+        Task poll(long now, long maxWaitMs) {
+            if (arrival.isEmpty()) {
+                return null;
+            }
+            Task task;
+            if (hasAged(now, maxWaitMs)) {
+                task = arrival.iterator().next();
+                bySource.get(task.source).remove(task);
+            } else {
+                String source = rotation.pollFirst();
+                task = bySource.get(source).poll();
+                rotation.addLast(source);
+            }
+            arrival.remove(task);
+            if (bySource.get(task.source).isEmpty()) {
+                bySource.remove(task.source);
+                rotation.remove(task.source);
+            }
+            return task;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        ensureWorkers();
+    }
+
+    /**
+     * Enfileira o arquivo; o futuro completa com o registro ao fim do processamento
+     */
+    public CompletableFuture<FileRecord> submit(Path filePath) {
+        long size;
+        try {
+            size = Files.size(filePath);
+        } catch (IOException e) {
+            size = 0;
+        }
+        boolean large = size > config.getSmallFileMaxBytes();
+        Task task = new Task(filePath, fileClaimService.sourceOf(filePath), size, sequence.incrementAndGet(), large);
+
+        lock.lock();
+        try {
+            (large ? largeLane : smallLane).add(task);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        log.debug("Arquivo {} enfileirado na faixa {} ({} bytes, origem {})",
+                filePath.getFileName(), large ? "grande" : "rápida", size, task.source);
+        return task.future;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        lock.lock();
+        try {
+            status.put("workers", config.getSchedulerThreads());
+            status.put("running", running);
+            status.put("running_large", runningLarge);
+            status.put("queued_small", smallLane.size());
+            status.put("queued_large", largeLane.size());
+        } finally {
+            lock.unlock();
+        }
+        return status;
+    }
+
+    @EventListener
+    public void onConfigReloaded(ConfigReloadedEvent event) {
+        if (event.changed(ConfigReloadedEvent.FILE_MONITOR + "schedulerThreads",
+                ConfigReloadedEvent.FILE_MONITOR + "largeFileMaxWorkers")) {
+            ensureWorkers();
+            lock.lock();
+            try {
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            log.info("Fila de arquivos ajustada para {} worker(s), até {} com arquivos grandes",
+                    config.getSchedulerThreads(), config.getLargeFileMaxWorkers());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shutdown = true;
+        synchronized (workers) {
+            workers.forEach(Thread::interrupt);
+        }
+    }
+
+    /**
+     * Cria workers até o total configurado; com menos workers configurados os excedentes só ficam parados
+     */
+    private void ensureWorkers() {
+        synchronized (workers) {
+            while (workers.size() < Math.max(1, config.getSchedulerThreads())) {
+                Thread worker = new Thread(this::work, "file-worker-" + (workers.size() + 1));
+                worker.setDaemon(true);
+                worker.start();
+                workers.add(worker);
+            }
+        }
+    }
+
+    private void work() {
+        while (!shutdown) {
+            Task task;
+            lock.lock();
+            try {
+                while ((task = pick()) == null) {
+                    changed.await();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                task.future.complete(fileProcessingService.processFile(task.filePath, ProgressListener.NONE));
+            } catch (Throwable e) {
+                task.future.completeExceptionally(e);
+            } finally {
+                lock.lock();
+                try {
+                    running--;
+                    if (task.large) {
+                        runningLarge--;
+                    }
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Escolhe a próxima tarefa (com o lock): pequenos primeiro, grande se houver vaga na cota
+     * e não houver pequeno esperando, ou se o grande mais antigo já esperou demais
+     */
+    private Task pick() {
+        if (running >= Math.max(1, config.getSchedulerThreads())) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        long maxWait = config.getSchedulerMaxWaitMs();
+        boolean largeAllowed = runningLarge < Math.max(1, config.getLargeFileMaxWorkers()) && !largeLane.isEmpty();
+
+        Task task;
+        if (largeAllowed && (smallLane.isEmpty() || largeLane.hasAged(now, maxWait))) {
+            task = largeLane.poll(now, maxWait);
+            runningLarge++;
+        } else {
+            task = smallLane.poll(now, maxWait);
+        }
+        if (task != null) {
+            running++;
+        }
+        return task;
+    }
+}
@@ -1,98 +1,145 @@
 package com.mercado.filemonitor.service;
 
-import com.mercado.filemonitor.config.ClientConfig;
 import com.mercado.filemonitor.config.FileMonitorConfig;
+import com.mercado.filemonitor.dto.ParseResult;
 import com.mercado.filemonitor.dto.PositionalRecord;
 import com.mercado.filemonitor.dto.ProdutoDTO;
 import com.mercado.filemonitor.entity.FileRecord;
 import com.mercado.filemonitor.repository.FileRecordRepository;
-import com.mercado.filemonitor.util.ProdutoWebClient;
+import com.mercado.filemonitor.util.BatchAcks;
+import com.mercado.filemonitor.util.ProdutoSinkException;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClientRequestException;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FileProcessingService {
+  // Bytes do início do arquivo comparados no modo tail para detectar rotação
+  private static final long HEAD_FINGERPRINT_BYTES = 4096;
+
   private final FileParserService fileParserService;
   private final JsonGeneratorService jsonGeneratorService;
   private final FileRecordRepository fileRecordRepository;
   private final ProdutoMapperService produtoMapperService;
   private final ProdutoJsonService produtoJsonService;
+  private final ProdutoSnapshotService produtoSnapshotService;
   private final FileMonitorConfig config;
-  private final ClientConfig clientConfig;
-
-  @Async
-  @Transactional
-  public void processFile(Path filePath) {
-    log.info("Iniciando processamento do arquivo: {}", filePath);
+  private final ProdutoSinkDispatcher produtoSinkDispatcher;
+  private final ProgressEventPublisher progressEventPublisher;
+  private final ProdutoCatalogIndex produtoCatalogIndex;
+  private final FileRecordService fileRecordService;
+  private final FileClaimService fileClaimService;
+
+  /**
+   * Processa o arquivo na thread atual, reportando o andamento ao listener informado.
+   * Sem transação envolvendo o arquivo inteiro: cada atualização do FileRecord (status,
+   * lotes confirmados) é gravada na hora e sobrevive a uma queda no meio do envio. Depois do
+   * insert, o registro só é gravado via {@link FileRecordService}, que relê antes de gravar.
+   */
+  public FileRecord processFile(Path filePath, ProgressListener jobListener) {
+    log.debug("Iniciando processamento do arquivo: {}", filePath);
+    ProcessingSummary summary = new ProcessingSummary();
+    ProgressListener listener =
+        ProgressListener.both(
+            ProgressListener.both(jobListener, summary),
+            progressEventPublisher.trackerFor(filePath.getFileName().toString()));
 
     FileRecord fileRecord = createFileRecord(filePath);
     fileRecord.setStatus(FileRecord.ProcessingStatus.PROCESSING);
     fileRecord = fileRecordRepository.save(fileRecord);
 
     try {
+      // Modo tail: lê só as linhas completas anexadas desde o último processamento
+      boolean tail = config.isTailMode();
+      long fromOffset = tail ? tailStartOffset(filePath) : 0;
+      if (!tail) {
+        fileRecord.setContentHash(BatchAcks.contentHash(filePath));
+      }
+
       // Parse do arquivo posicional
-      List<PositionalRecord> records = fileParserService.parsePositionalFile(filePath);
+      listener.onStage("PARSE");
+      ParseResult parseResult = fileParserService.parse(filePath, fromOffset, tail, listener);
+      List<PositionalRecord> records = parseResult.getRecords();
+      if (tail) {
+        fileRecord.setContentHash(
+            BatchAcks.contentHash(filePath, fromOffset, parseResult.getEndOffset()));
+      }
 
-      // Geração do JSON
+      // Geração do JSON (artefatos nomeados pela origem: o txitens.txt de cada loja tem os seus)
+      listener.onStage("JSON");
+      String sourceFileName = fileClaimService.sourceFileName(filePath);
       Path outputDir = Paths.get(config.getOutputDirectory());
-      Path jsonPath =
-          jsonGeneratorService.generateJsonFile(
-              records, outputDir, filePath.getFileName().toString());
+      Path jsonPath = jsonGeneratorService.generateJsonFile(records, outputDir, sourceFileName);
 
       // Mapeamento para produtos
-      List<ProdutoDTO> produtos = produtoMapperService.mapToProdutos(records);
+      listener.onStage("MAPEAMENTO");
+      List<ProdutoDTO> mapeados = produtoMapperService.mapToProdutos(records);
+      List<ProdutoDTO> produtos =
+          produtoMapperService.removeDuplicates(mapeados, config.getDuplicatePolicy());
+      fileRecord.setDuplicatesCount(mapeados.size() - produtos.size());
+      fileRecord.setDuplicatePolicy(config.getDuplicatePolicy());
 
       // Geração do JSON de produtos
+      listener.onStage("JSON_PRODUTOS");
       Path outputDirJson = Paths.get(config.getOutputDirectoryJsonProdutos());
       Path produtoJsonPath =
-          produtoJsonService.generateProdutoJsonFile(
-              produtos, outputDirJson, filePath.getFileName().toString());
+          produtoJsonService.generateProdutoJsonFile(produtos, outputDirJson, sourceFileName);
+
+      // Snapshot binário de produtos (opcional)
+      String outputPath = jsonPath.toString() + "; " + produtoJsonPath.toString();
+      if (config.isSnapshotEnabled()) {
+        listener.onStage("SNAPSHOT");
+        Path snapshotPath =
+            produtoSnapshotService.generateSnapshotFile(
+                produtos,
+                Paths.get(config.getOutputDirectorySnapshot()),
+                sourceFileName);
+        outputPath += "; " + snapshotPath;
+      }
+      if (parseResult.getRejectsPath() != null) {
+        outputPath += "; " + parseResult.getRejectsPath();
+      }
 
       // Atualizar registro de sucesso
       fileRecord.setStatus(FileRecord.ProcessingStatus.COMPLETED);
       fileRecord.setProcessedAt(LocalDateTime.now());
-      fileRecord.setOutputPath(jsonPath.toString() + "; " + produtoJsonPath.toString());
+      fileRecord.setOutputPath(outputPath);
       fileRecord.setRecordsCount(records.size());
+      fileRecord.setRejectedCount(parseResult.getRejectedCount());
       fileRecord.setErrorMessage(null);
 
-      log.info("Arquivo processado com sucesso: ");
-      log.info("  - Entrada: {}", filePath);
-      log.info("  - JSON Original: {}", jsonPath);
-      log.info("  - JSON Produtos: {}", produtoJsonPath);
-      log.info("  - Registros: {}", records.size());
-
       try {
         if (produtos.size() > 0) {
-          log.info("  Chamando o adm para atualizar BD com {} registros", produtos.size());
-          ProdutoWebClient webClient = new ProdutoWebClient(clientConfig);
-          webClient.enviarProdutos(produtos);
+          listener.onStage("ENVIO_REMOTO");
+          produtoSinkDispatcher.dispatch(fileRecord, sourceFileName, produtos, listener);
         }
-      } catch (WebClientRequestException e) {
-        log.error("Erro ao executar o chamado remoto para o adm {}", e.getMessage(), e);
-        // Atualizar registro de erro
-        fileRecord.setStatus(FileRecord.ProcessingStatus.ERROR);
-        fileRecord.setProcessedAt(LocalDateTime.now());
-        fileRecord.setErrorMessage(e.getMessage());
-      } catch (Exception e) {
-        log.error("Erro no adm remoto{}", e.getMessage(), e);
+      } catch (ProdutoSinkException e) {
+        log.error("Erro na entrega dos produtos: {}", e.getMessage());
         // Atualizar registro de erro
         fileRecord.setStatus(FileRecord.ProcessingStatus.ERROR);
         fileRecord.setProcessedAt(LocalDateTime.now());
         fileRecord.setErrorMessage(e.getMessage());
       }
+      if (fileRecord.getStatus() != FileRecord.ProcessingStatus.ERROR) {
+        produtoCatalogIndex.merge(produtos, filePath.getFileName().toString());
+        if (tail) {
+          long endOffset = parseResult.getEndOffset();
+          fileRecord.setProcessedOffset(endOffset);
+          fileRecord.setHeadFingerprint(
+              BatchAcks.contentHash(filePath, 0, Math.min(endOffset, HEAD_FINGERPRINT_BYTES)));
+        }
+      }
     } catch (Exception e) {
       log.error("Erro ao processar arquivo {}: {}", filePath, e.getMessage(), e);
 
@@ -101,7 +148,71 @@ public class FileProcessingService {
       fileRecord.setProcessedAt(LocalDateTime.now());
       fileRecord.setErrorMessage(e.getMessage());
     } finally {
-      fileRecordRepository.save(fileRecord);
+      // Sinks e drenagem do outbox gravam no registro durante o envio: grava só o resultado
+      fileRecord = fileRecordService.saveResult(fileRecord);
+      listener.onStage(finalStage(fileRecord.getStatus()));
+      logSummary(filePath, fileRecord, summary);
+    }
+    return fileRecord;
+  }
+
+  /**
+   * Offset de onde o modo tail retoma: o fim do último processamento bem-sucedido, ou 0 (arquivo
+   * inteiro) se o arquivo encolheu (truncado) ou se o início mudou (rotacionado/substituído)
+   */
+  private long tailStartOffset(Path filePath) throws IOException {
+    Optional<FileRecord> previous =
+        fileRecordRepository.findFirstByFilePathAndProcessedOffsetIsNotNullOrderByIdDesc(
+            filePath.toString());
+    if (previous.isEmpty()) {
+      return 0;
+    }
+    long offset = previous.get().getProcessedOffset();
+    long size = Files.size(filePath);
+    if (size < offset) {
+      log.info(
+          "Arquivo {} truncado ({} bytes, processado até {}), reprocessando do início",
+          filePath, size, offset);
+      return 0;
+    }
+    String head = BatchAcks.contentHash(filePath, 0, Math.min(offset, HEAD_FINGERPRINT_BYTES));
+    if (!head.equals(previous.get().getHeadFingerprint())) {
+      log.info("Início do arquivo {} mudou (rotação), reprocessando do início", filePath);
+      return 0;
+    }
+    log.debug("Modo tail: {} a partir do byte {} de {}", filePath, offset, size);
+    return offset;
+  }
+
+  /**
+   * Uma linha por arquivo com o resultado e o tempo de cada etapa
+   */
+  private void logSummary(Path filePath, FileRecord fileRecord, ProcessingSummary summary) {
+    String line =
+        String.format(
+            "Arquivo %s: status=%s registros=%s rejeitados=%s duplicados=%s %s saidas=[%s]",
+            filePath,
+            fileRecord.getStatus(),
+            fileRecord.getRecordsCount(),
+            fileRecord.getRejectedCount(),
+            fileRecord.getDuplicatesCount(),
+            summary.describe(),
+            fileRecord.getOutputPath());
+    if (fileRecord.getStatus() == FileRecord.ProcessingStatus.ERROR) {
+      log.warn("{} erro={}", line, fileRecord.getErrorMessage());
+    } else {
+      log.info(line);
+    }
+  }
+
+  private String finalStage(FileRecord.ProcessingStatus status) {
+    switch (status) {
+      case COMPLETED:
+        return "CONCLUIDO";
+      case SPOOLED:
+        return "OUTBOX";
+      default:
+        return "ERRO";
     }
   }
 
@@ -113,9 +224,7 @@ public class FileProcessingService {
 
     try {
       record.setFileSize(Files.size(filePath));
-      record.setLastModified(
-          LocalDateTime.ofInstant(
-              Files.getLastModifiedTime(filePath).toInstant(), ZoneId.systemDefault()));
+      record.setLastModified(lastModified(filePath));
     } catch (IOException e) {
       log.warn("Erro ao obter informações do arquivo {}: {}", filePath, e.getMessage());
     }
@@ -125,16 +234,22 @@ public class FileProcessingService {
 
   public boolean shouldProcessFile(Path filePath) {
     try {
-      LocalDateTime lastModified =
-          LocalDateTime.ofInstant(
-              Files.getLastModifiedTime(filePath).toInstant(), ZoneId.systemDefault());
-
       return fileRecordRepository
-          .findByFilePathAndLastModified(filePath.toString(), lastModified)
+          .findByFilePathAndLastModified(filePath.toString(), lastModified(filePath))
           .isEmpty();
     } catch (IOException e) {
       log.error("Erro ao verificar se arquivo deve ser processado: {}", e.getMessage());
       return false;
     }
   }
+
+  /**
+   * Data de modificação em milissegundos: o sistema de arquivos guarda nanossegundos, mais do que a
+   * coluna preserva, e a comparação com o registro nunca bateria
+   */
+  private LocalDateTime lastModified(Path filePath) throws IOException {
+    return LocalDateTime.ofInstant(
+            Files.getLastModifiedTime(filePath).toInstant(), ZoneId.systemDefault())
+        .truncatedTo(ChronoUnit.MILLIS);
+  }
 }
@@ -0,0 +1,88 @@
+package com.mercado.filemonitor.service;
+
+import com.mercado.filemonitor.entity.FileRecord;
+import com.mercado.filemonitor.repository.FileRecordRepository;
+import com.mercado.filemonitor.util.BatchAcks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Atualizações do FileRecord feitas por mais de uma thread (processamento, sinks, drenagem do
+ * outbox, pós-processamento). Cada alteração relê o registro e é gravada com controle de versão;
+ * em conflito é reaplicada sobre a versão nova, nunca sobre uma cópia desatualizada.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileRecordService {
+
+    private static final int MAX_ATTEMPTS = 10;
+
+    private final FileRecordRepository fileRecordRepository;
+
+    /**
+     * Relê o registro, aplica a alteração e grava. A alteração pode rodar mais de uma vez.
+     */
+    public Optional<FileRecord> update(Long id, Consumer<FileRecord> change) {
+        for (int attempt = 1; ; attempt++) {
+            Optional<FileRecord> current = fileRecordRepository.findById(id);
+            if (current.isEmpty()) {
+                return Optional.empty();
+            }
+            FileRecord fileRecord = current.get();
+            change.accept(fileRecord);
+            try {
+                return Optional.of(fileRecordRepository.save(fileRecord));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Registro {} alterado por outra thread, reaplicando (tentativa {})", id, attempt + 1);
+            }
+        }
+    }
+
+    /**
+     * Marca o lote como confirmado pelo remoto, somando aos lotes já confirmados no registro
+     */
+    public Optional<FileRecord> acknowledge(Long id, int batchIndex) {
+        return update(id, fileRecord -> {
+            BitSet acked = BatchAcks.decode(fileRecord.getAckedBatches());
+            acked.set(batchIndex);
+            fileRecord.setAckedBatches(BatchAcks.encode(acked));
+        });
+    }
+
+    /**
+     * Grava o resultado do processamento. Lotes confirmados não vêm da cópia local (são gravados
+     * lote a lote); se a drenagem já concluiu ou recusou um arquivo SPOOLED, o status dela prevalece.
+     */
+    public FileRecord saveResult(FileRecord result) {
+        return update(result.getId(), current -> {
+            boolean drainFinished = result.getStatus() == FileRecord.ProcessingStatus.SPOOLED
+                    && (current.getStatus() == FileRecord.ProcessingStatus.COMPLETED
+                    || current.getStatus() == FileRecord.ProcessingStatus.ERROR);
+            if (!drainFinished) {
+                current.setStatus(result.getStatus());
+                current.setProcessedAt(result.getProcessedAt());
+                current.setErrorMessage(result.getErrorMessage());
+            }
+            current.setOutputPath(result.getOutputPath());
+            current.setRecordsCount(result.getRecordsCount());
+            current.setRejectedCount(result.getRejectedCount());
+            current.setDuplicatesCount(result.getDuplicatesCount());
+            current.setDuplicatePolicy(result.getDuplicatePolicy());
+            current.setContentHash(result.getContentHash());
+            current.setBatchSize(result.getBatchSize());
+            current.setBatchCount(result.getBatchCount());
+            current.setProcessedOffset(result.getProcessedOffset());
+            current.setHeadFingerprint(result.getHeadFingerprint());
+        }).orElse(result);
+    }
+}
@@ -0,0 +1,175 @@
+package com.mercado.filemonitor.service;
+
+import com.mercado.filemonitor.dto.OutboxEntry;
+import com.mercado.filemonitor.dto.ProdutoDTO;
+import com.mercado.filemonitor.entity.FileRecord;
+import com.mercado.filemonitor.repository.FileRecordRepository;
+import com.mercado.filemonitor.util.BatchAcks;
+import com.mercado.filemonitor.util.ProdutoWebClient;
+import com.mercado.filemonitor.util.RemoteUnavailableException;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * Envia os lotes ao import-txt, cada um com chave de idempotência (hash do conteúdo + índice).
+ * Lotes já confirmados em uma tentativa anterior do mesmo conteúdo que não terminou (falha,
+ * outbox ou reprocessamento imediato do mesmo arquivo) não são reenviados.
+ * Se o remoto estiver indisponível (ou ainda houver lotes pendentes no outbox, para manter
+ * a ordem), os lotes restantes vão para o outbox e o arquivo fica como SPOOLED até a drenagem.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HttpProdutoSink implements ProdutoSink {
+
+    public static final String NAME = "http";
+
+    private final ProdutoWebClient produtoWebClient;
+    private final ProdutoOutboxService produtoOutboxService;
+    private final FileRecordRepository fileRecordRepository;
+    private final FileRecordService fileRecordService;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Session open(ProdutoSinkContext context) {
+        FileRecord fileRecord = context.getFileRecord();
+        BitSet acked = previousAcks(fileRecord, context.getBatchSize());
+        fileRecord.setBatchSize(context.getBatchSize());
+        fileRecord.setBatchCount(context.getBatchCount());
+        fileRecord.setAckedBatches(BatchAcks.encode(acked));
+        fileRecordService.update(fileRecord.getId(), current -> {
+            current.setDuplicatePolicy(fileRecord.getDuplicatePolicy());
+            current.setBatchSize(context.getBatchSize());
+            current.setBatchCount(context.getBatchCount());
+            current.setAckedBatches(BatchAcks.encode(acked));
+        });
+        if (!acked.isEmpty()) {
+            log.info("  {} de {} lote(s) já confirmados em processamento anterior, não serão reenviados",
+                    acked.cardinality(), context.getBatchCount());
+        }
+        log.debug("  Chamando o adm para atualizar BD com {} lote(s)", context.getBatchCount());
+        return new HttpSession(context, acked, produtoOutboxService.hasPending());
+    }
+
+    /**
+     * Lotes confirmados no último processamento do mesmo conteúdo, desde que com o mesmo tamanho
+     * de lote e a mesma política de duplicados (senão os lotes de mesmo índice não são iguais)
+     */
+    private BitSet previousAcks(FileRecord fileRecord, int batchSize) {
+        return fileRecordRepository
+                .findFirstByContentHashAndIdNotOrderByIdDesc(fileRecord.getContentHash(), fileRecord.getId())
+                .filter(previous -> Integer.valueOf(batchSize).equals(previous.getBatchSize())
+                        && Objects.equals(fileRecord.getDuplicatePolicy(), previous.getDuplicatePolicy()))
+                .filter(previous -> isRetryOf(fileRecord, previous))
+                .map(previous -> BatchAcks.decode(previous.getAckedBatches()))
+                .orElseGet(BitSet::new);
+    }
+
+    /**
+     * Só uma tentativa interrompida (ERROR ou SPOOLED) ou a tentativa imediatamente anterior do
+     * mesmo arquivo conta. Um envio concluído mais antigo não: reenviar A depois de B (para
+     * voltar os preços de A) precisa chegar inteiro ao remoto.
+     */
+    private boolean isRetryOf(FileRecord fileRecord, FileRecord previous) {
+        if (previous.getStatus() == FileRecord.ProcessingStatus.ERROR
+                || previous.getStatus() == FileRecord.ProcessingStatus.SPOOLED) {
+            return true;
+        }
+        return fileRecordRepository
+                .findFirstByFilePathAndIdLessThanOrderByIdDesc(fileRecord.getFilePath(), fileRecord.getId())
+                .filter(preceding -> preceding.getId().equals(previous.getId()))
+                .isPresent();
+    }
+
+    private final class HttpSession implements Session {
+
+        private final ProdutoSinkContext context;
+        private final FileRecord fileRecord;
+        private final BitSet acked;
+        private boolean spooling;
+        private int spooled;
+        private int batch;
+
+        private HttpSession(ProdutoSinkContext context, BitSet acked, boolean spooling) {
+            this.context = context;
+            this.fileRecord = context.getFileRecord();
+            this.acked = acked;
+            this.spooling = spooling;
+        }
+
+        @Override
+        public void accept(List<ProdutoDTO> produtos) throws IOException {
+            int index = batch++;
+            if (acked.get(index)) {
+                return;
+            }
+
+            String idempotencyKey = BatchAcks.idempotencyKey(fileRecord.getContentHash(), index);
+            if (!spooling) {
+                try {
+                    produtoWebClient.enviarProdutos(produtos, idempotencyKey);
+                    acked.set(index);
+                    fileRecord.setAckedBatches(BatchAcks.encode(acked));
+                    fileRecordService.acknowledge(fileRecord.getId(), index);
+                    context.getListener().onBatchSent(acked.cardinality());
+                    return;
+                } catch (WebClientResponseException e) {
+                    if (e.getStatusCode().is4xxClientError()) {
+                        log.error("Remoto recusou os produtos: {}", e.getMessage());
+                        throw e;
+                    }
+                    log.warn("Remoto falhou no lote {} de {}: {}", index + 1, context.getBatchCount(), e.getMessage());
+                } catch (WebClientRequestException | RemoteUnavailableException e) {
+                    log.warn("Remoto indisponível no lote {} de {}: {}", index + 1, context.getBatchCount(), e.getMessage());
+                }
+                spooling = true;
+            }
+
+            if (spooled == 0) {
+                // Grava o status antes do outbox para a drenagem encontrar o arquivo como SPOOLED
+                fileRecord.setStatus(FileRecord.ProcessingStatus.SPOOLED);
+                fileRecordService.update(fileRecord.getId(),
+                        current -> current.setStatus(FileRecord.ProcessingStatus.SPOOLED));
+            }
+            produtoOutboxService.spool(List.of(OutboxEntry.builder()
+                    .fileRecordId(fileRecord.getId())
+                    .source(fileRecord.getFileName())
+                    .batchIndex(index)
+                    .batchCount(context.getBatchCount())
+                    .idempotencyKey(idempotencyKey)
+                    .produtos(produtos)
+                    .build()));
+            spooled++;
+        }
+
+        @Override
+        public void flush() {
+            if (spooled > 0) {
+                String message = spooled + " lote(s) aguardando envio no outbox";
+                fileRecord.setErrorMessage(message);
+                // A drenagem pode já ter concluído o arquivo enquanto os demais lotes eram gravados
+                fileRecordService.update(fileRecord.getId(), current -> {
+                    if (current.getStatus() == FileRecord.ProcessingStatus.SPOOLED) {
+                        current.setErrorMessage(message);
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void abort() {
+            // Lotes confirmados e os já gravados no outbox continuam valendo para a próxima tentativa
+        }
+    }
+}
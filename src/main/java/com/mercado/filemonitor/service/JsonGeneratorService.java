@@ -1,13 +1,16 @@
 package com.mercado.filemonitor.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.mercado.filemonitor.dto.PositionalRecord;
+import com.mercado.filemonitor.util.JsonWriters;
+import com.mercado.filemonitor.util.OutputFiles;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
@@ -17,44 +20,44 @@ import java.util.List;
 import java.util.Map;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class JsonGeneratorService {
 
-    private final ObjectMapper objectMapper;
-
-    public JsonGeneratorService() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
-        this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
-    }
+    private final JsonWriters jsonWriters;
+    private final OutputFiles outputFiles;
 
     public Path generateJsonFile(List<PositionalRecord> records, Path outputDirectory, String originalFileName) throws IOException {
-        log.info("Gerando arquivo JSON para {} registros", records.size());
+        log.debug("Gerando arquivo JSON para {} registros", records.size());
 
         // Criar diretório de saída se não existir
         Files.createDirectories(outputDirectory);
 
         // Gerar nome do arquivo JSON
         String jsonFileName = generateJsonFileName(originalFileName);
-        Path jsonFilePath = outputDirectory.resolve(jsonFileName);
-
-        // Criar estrutura do JSON com metadados
-        Map<String, Object> jsonOutput = new HashMap<>();
-        jsonOutput.put("metadata", createMetadata(originalFileName, records.size()));
-        jsonOutput.put("records", records);
+        Path jsonFilePath = outputFiles.resolve(outputDirectory, jsonFileName);
 
-        // Escrever JSON no arquivo
-        objectMapper.writeValue(jsonFilePath.toFile(), jsonOutput);
+        // Escrever JSON com metadados no arquivo (comprimido em streaming quando configurado)
+        try (OutputStream out = outputFiles.open(jsonFilePath);
+             JsonGenerator generator = jsonWriters.createPrettyGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeObjectField("metadata", createMetadata(originalFileName, records.size()));
+            writeRecords(generator, records);
+            generator.writeEndObject();
+        }
 
-        log.info("Arquivo JSON gerado: {}", jsonFilePath);
+        log.debug("Arquivo JSON gerado: {}", jsonFilePath);
+        outputFiles.applyRetention(outputDirectory, baseName(originalFileName) + "_", ".json");
         return jsonFilePath;
     }
 
     private String generateJsonFileName(String originalFileName) {
-        String baseName = originalFileName.replaceAll("\\.[^.]+$", ""); // Remove extensão
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        return String.format("%s_%s.json", baseName, timestamp);
+        return String.format("%s_%s.json", baseName(originalFileName), timestamp);
+    }
+
+    private String baseName(String originalFileName) {
+        return originalFileName.replaceAll("\\.[^.]+$", ""); // Remove extensão
     }
 
     private Map<String, Object> createMetadata(String originalFileName, int recordCount) {
@@ -68,10 +71,24 @@ public class JsonGeneratorService {
     }
 
     public String generateJsonString(List<PositionalRecord> records) throws IOException {
-        Map<String, Object> jsonOutput = new HashMap<>();
-        jsonOutput.put("records", records);
-        jsonOutput.put("count", records.size());
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = jsonWriters.createPrettyGenerator(json)) {
+            generator.writeStartObject();
+            writeRecords(generator, records);
+            generator.writeNumberField("count", records.size());
+            generator.writeEndObject();
+        }
+        return json.toString();
+    }
 
-        return objectMapper.writeValueAsString(jsonOutput);
+    /**
+     * Registro a registro pelo writer pré-montado, sem passar a lista pelo serializador de coleções
+     */
+    private void writeRecords(JsonGenerator generator, List<PositionalRecord> records) throws IOException {
+        generator.writeArrayFieldStart("records");
+        for (PositionalRecord record : records) {
+            jsonWriters.positionalRecord().writeValue(generator, record);
+        }
+        generator.writeEndArray();
     }
 }
@@ -0,0 +1,88 @@
+package com.mercado.filemonitor.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mercado.filemonitor.config.FileMonitorConfig;
+import com.mercado.filemonitor.dto.ProdutoDTO;
+import com.mercado.filemonitor.util.JsonWriters;
+import com.mercado.filemonitor.util.OutputFiles;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Grava os produtos em um arquivo NDJSON (um produto por linha) para consumo por outros sistemas
+ */
+@Service
+@Slf4j
+public class NdjsonProdutoSink implements ProdutoSink {
+
+    public static final String NAME = "ndjson";
+    private static final String EXTENSION = ".ndjson";
+
+    private final FileMonitorConfig config;
+    private final OutputFiles outputFiles;
+    private final ObjectWriter writer;
+
+    public NdjsonProdutoSink(FileMonitorConfig config, OutputFiles outputFiles, JsonWriters jsonWriters) {
+        this.config = config;
+        this.outputFiles = outputFiles;
+        this.writer = jsonWriters.produto();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Session open(ProdutoSinkContext context) throws IOException {
+        Path outputDirectory = Paths.get(config.getOutputDirectoryNdjson());
+        Files.createDirectories(outputDirectory);
+        String baseName = context.getSourceFileName().replaceAll("\\.[^.]+$", ""); // Remove extensão
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        Path path = outputFiles.resolve(outputDirectory, String.format("produtos_%s_%s%s", baseName, timestamp, EXTENSION));
+        JsonGenerator generator = writer.createGenerator(outputFiles.open(path));
+        generator.setRootValueSeparator(null);
+
+        return new Session() {
+            @Override
+            public void accept(List<ProdutoDTO> batch) throws IOException {
+                for (ProdutoDTO produto : batch) {
+                    writer.writeValue(generator, produto);
+                    generator.writeRaw('\n');
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                generator.close();
+                log.debug("Arquivo NDJSON de produtos gerado: {}", path);
+                outputFiles.applyRetention(outputDirectory, "produtos_" + baseName + "_", EXTENSION);
+            }
+
+            @Override
+            public void abort() {
+                // Arquivo truncado não pode parecer um artefato completo nem contar na retenção
+                try {
+                    generator.close();
+                } catch (IOException e) {
+                    log.debug("Erro ao fechar NDJSON incompleto {}: {}", path, e.getMessage());
+                }
+                try {
+                    Files.deleteIfExists(path);
+                    log.debug("Arquivo NDJSON incompleto removido: {}", path);
+                } catch (IOException e) {
+                    log.warn("Erro ao remover NDJSON incompleto {}: {}", path, e.getMessage());
+                }
+            }
+        };
+    }
+}
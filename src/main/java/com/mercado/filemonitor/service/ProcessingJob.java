@@ -0,0 +1,127 @@
+package com.mercado.filemonitor.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Job de processamento manual executado fora da thread da requisição.
+ * Acompanha etapa, linhas e bytes processados para cálculo do ETA.
+ */
+@Getter
+public class ProcessingJob implements ProgressListener {
+
+    public enum Type {
+        PROCESS, GENERATE_PRODUTOS
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    private final String id;
+    private final Type type;
+    private final String filePath;
+    private final long totalBytes;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final AtomicLong linesProcessed = new AtomicLong();
+    private final AtomicLong bytesProcessed = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile String stage;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String message;
+    private volatile Map<String, String> result;
+    private volatile boolean cancelRequested;
+    private volatile long startNanos;
+
+    @Setter
+    private volatile Future<?> future;
+
+    public ProcessingJob(String id, Type type, String filePath, long totalBytes) {
+        this.id = id;
+        this.type = type;
+        this.filePath = filePath;
+        this.totalBytes = totalBytes;
+    }
+
+    @Override
+    public void onStage(String stage) {
+        this.stage = stage;
+    }
+
+    @Override
+    public void onProgress(long linesProcessed, long bytesProcessed) {
+        this.linesProcessed.set(linesProcessed);
+        this.bytesProcessed.set(bytesProcessed);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    public void requestCancel() {
+        this.cancelRequested = true;
+    }
+
+    public void markRunning() {
+        this.startNanos = System.nanoTime();
+        this.startedAt = LocalDateTime.now();
+        this.status = Status.RUNNING;
+    }
+
+    public void markFinished(Status status, String message, Map<String, String> result) {
+        this.finishedAt = LocalDateTime.now();
+        this.message = message;
+        this.result = result;
+        this.status = status;
+    }
+
+    public boolean isFinished() {
+        Status current = status;
+        return current == Status.COMPLETED || current == Status.FAILED || current == Status.CANCELLED;
+    }
+
+    /**
+     * Estimativa de tempo restante em segundos, baseada na taxa de bytes lidos até o momento
+     */
+    public Long getEtaSeconds() {
+        long bytes = bytesProcessed.get();
+        if (status != Status.RUNNING || bytes == 0 || totalBytes <= 0) {
+            return null;
+        }
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        double bytesPerSecond = bytes / Math.max(elapsedSeconds, 0.001);
+        return (long) Math.ceil(Math.max(0, totalBytes - bytes) / bytesPerSecond);
+    }
+
+    public Map<String, Object> toStatusMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("job_id", id);
+        map.put("type", type);
+        map.put("status", status);
+        map.put("stage", stage);
+        map.put("file_path", filePath);
+        map.put("lines_processed", linesProcessed.get());
+        map.put("bytes_processed", bytesProcessed.get());
+        map.put("total_bytes", totalBytes);
+        map.put("eta_seconds", getEtaSeconds());
+        map.put("created_at", createdAt);
+        map.put("started_at", startedAt);
+        map.put("finished_at", finishedAt);
+        if (startedAt != null) {
+            LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+            map.put("elapsed_ms", Duration.between(startedAt, end).toMillis());
+        }
+        map.put("message", message);
+        map.put("result", result);
+        return map;
+    }
+}
@@ -0,0 +1,233 @@
+package com.mercado.filemonitor.service;
+
+import com.mercado.filemonitor.config.ConfigReloadedEvent;
+import com.mercado.filemonitor.config.FileMonitorConfig;
+import com.mercado.filemonitor.dto.PositionalRecord;
+import com.mercado.filemonitor.dto.ProdutoDTO;
+import com.mercado.filemonitor.entity.FileRecord;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fila de jobs para as requisições manuais de processamento e geração de JSON.
+ * O trabalho pesado roda em um pool próprio, nunca na thread da requisição.
+ */
+@Service
+@Slf4j
+public class ProcessingJobService {
+
+    private static final long FINISHED_JOB_RETENTION_MINUTES = 60;
+
+    private final FileProcessingService fileProcessingService;
+    private final FileParserService fileParserService;
+    private final ProdutoMapperService produtoMapperService;
+    private final ProdutoJsonService produtoJsonService;
+    private final FileMonitorConfig config;
+    private final FileClaimService fileClaimService;
+
+    private final Map<String, ProcessingJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public ProcessingJobService(FileProcessingService fileProcessingService,
+                                FileParserService fileParserService,
+                                ProdutoMapperService produtoMapperService,
+                                ProdutoJsonService produtoJsonService,
+                                FileMonitorConfig config,
+                                FileClaimService fileClaimService) {
+        this.fileProcessingService = fileProcessingService;
+        this.fileParserService = fileParserService;
+        this.produtoMapperService = produtoMapperService;
+        this.produtoJsonService = produtoJsonService;
+        this.config = config;
+        this.fileClaimService = fileClaimService;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                config.getJobThreads(), config.getJobThreads(),
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(config.getJobQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "file-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Enfileira o processamento completo do arquivo (parse, JSONs e envio remoto)
+     */
+    public ProcessingJob submitProcess(Path filePath) {
+        ProcessingJob job = newJob(ProcessingJob.Type.PROCESS, filePath);
+        return submit(job, () -> {
+            FileRecord fileRecord = fileProcessingService.processFile(filePath, job);
+            Map<String, String> result = new HashMap<>();
+            result.put("file_record_id", String.valueOf(fileRecord.getId()));
+            result.put("output_path", fileRecord.getOutputPath());
+            result.put("records_count", String.valueOf(fileRecord.getRecordsCount()));
+
+            if (job.isCancelled()) {
+                job.markFinished(ProcessingJob.Status.CANCELLED, fileRecord.getErrorMessage(), result);
+            } else if (fileRecord.getStatus() == FileRecord.ProcessingStatus.ERROR) {
+                job.markFinished(ProcessingJob.Status.FAILED, fileRecord.getErrorMessage(), result);
+            } else if (fileRecord.getStatus() == FileRecord.ProcessingStatus.SPOOLED) {
+                job.markFinished(ProcessingJob.Status.COMPLETED, fileRecord.getErrorMessage(), result);
+            } else {
+                job.markFinished(ProcessingJob.Status.COMPLETED, "Arquivo processado com sucesso", result);
+            }
+        });
+    }
+
+    /**
+     * Enfileira a geração do JSON de produtos do arquivo
+     */
+    public ProcessingJob submitGenerateProdutos(Path filePath) {
+        ProcessingJob job = newJob(ProcessingJob.Type.GENERATE_PRODUTOS, filePath);
+        return submit(job, () -> {
+            job.onStage("PARSE");
+            List<PositionalRecord> records = fileParserService.parsePositionalFile(filePath, job);
+
+            job.onStage("MAPEAMENTO");
+            List<ProdutoDTO> produtos = produtoMapperService.removeDuplicates(
+                    produtoMapperService.mapToProdutos(records), config.getDuplicatePolicy());
+
+            job.onStage("JSON_PRODUTOS");
+            Path outputDirJson = Paths.get(config.getOutputDirectoryJsonProdutos());
+            Path produtoJsonPath = produtoJsonService.generateProdutoJsonFile(
+                    produtos, outputDirJson, fileClaimService.sourceFileName(filePath));
+
+            Map<String, String> result = new HashMap<>();
+            result.put("output_path", produtoJsonPath.toString());
+            result.put("total_produtos", String.valueOf(produtos.size()));
+            job.markFinished(ProcessingJob.Status.COMPLETED, "JSON de produtos gerado com sucesso", result);
+        });
+    }
+
+    public Optional<ProcessingJob> findJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    public List<ProcessingJob> listJobs() {
+        List<ProcessingJob> list = new ArrayList<>(jobs.values());
+        list.sort(Comparator.comparing(ProcessingJob::getCreatedAt).reversed());
+        return list;
+    }
+
+    /**
+     * Solicita o cancelamento do job. Jobs ainda na fila são removidos imediatamente;
+     * jobs em execução param na próxima verificação do parse.
+     */
+    public Optional<ProcessingJob> cancel(String jobId) {
+        ProcessingJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        if (job.isFinished()) {
+            return Optional.of(job);
+        }
+
+        job.requestCancel();
+        if (job.getStatus() == ProcessingJob.Status.QUEUED
+                && job.getFuture() != null && job.getFuture().cancel(false)) {
+            job.markFinished(ProcessingJob.Status.CANCELLED, "Job cancelado antes de iniciar", null);
+        }
+        log.info("Cancelamento solicitado para o job {}", jobId);
+        return Optional.of(job);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeFinishedJobs() {
+        LocalDateTime limit = LocalDateTime.now().minusMinutes(FINISHED_JOB_RETENTION_MINUTES);
+        jobs.values().removeIf(job -> job.isFinished()
+                && job.getFinishedAt() != null
+                && job.getFinishedAt().isBefore(limit));
+    }
+
+    /**
+     * Ajusta o tamanho do pool quando job-threads muda; a capacidade da fila vale só após reiniciar
+     */
+    @EventListener
+    public void onConfigReloaded(ConfigReloadedEvent event) {
+        if (!event.changed(ConfigReloadedEvent.FILE_MONITOR + "jobThreads")) {
+            return;
+        }
+        int threads = Math.max(1, config.getJobThreads());
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+        log.info("Pool de jobs ajustado para {} thread(s)", threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private ProcessingJob newJob(ProcessingJob.Type type, Path filePath) {
+        long totalBytes;
+        try {
+            totalBytes = Files.size(filePath);
+        } catch (IOException e) {
+            totalBytes = -1;
+        }
+        return new ProcessingJob(UUID.randomUUID().toString(), type, filePath.toString(), totalBytes);
+    }
+
+    private ProcessingJob submit(ProcessingJob job, JobTask task) {
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(executor.submit(() -> run(job, task)));
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        log.info("Job {} ({}) enfileirado para o arquivo {}", job.getId(), job.getType(), job.getFilePath());
+        return job;
+    }
+
+    private void run(ProcessingJob job, JobTask task) {
+        if (job.isCancelled()) {
+            job.markFinished(ProcessingJob.Status.CANCELLED, "Job cancelado antes de iniciar", null);
+            return;
+        }
+        job.markRunning();
+        try {
+            task.run();
+        } catch (CancellationException e) {
+            log.info("Job {} cancelado: {}", job.getId(), e.getMessage());
+            job.markFinished(ProcessingJob.Status.CANCELLED, e.getMessage(), null);
+        } catch (Exception e) {
+            log.error("Erro no job {}: {}", job.getId(), e.getMessage(), e);
+            job.markFinished(ProcessingJob.Status.FAILED, e.getMessage(), null);
+        }
+    }
+
+    @FunctionalInterface
+    private interface JobTask {
+        void run() throws Exception;
+    }
+}
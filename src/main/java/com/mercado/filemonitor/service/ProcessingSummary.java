@@ -0,0 +1,51 @@
+package com.mercado.filemonitor.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Acumula o andamento de um arquivo (tempo por etapa, linhas, bytes e lotes) para
+ * registrar uma única linha de resumo ao final, em vez de vários logs por etapa.
+ */
+class ProcessingSummary implements ProgressListener {
+
+    private final long startedAt = System.nanoTime();
+    private final Map<String, Long> stageMillis = new LinkedHashMap<>();
+    private String currentStage;
+    private long stageStartedAt;
+    private long lines;
+    private long bytes;
+    private int batchesSent;
+
+    @Override
+    public synchronized void onStage(String stage) {
+        long now = System.nanoTime();
+        if (currentStage != null) {
+            stageMillis.merge(currentStage, (now - stageStartedAt) / 1_000_000, Long::sum);
+        }
+        currentStage = stage;
+        stageStartedAt = now;
+    }
+
+    @Override
+    public synchronized void onProgress(long linesParsed, long bytesProcessed) {
+        this.lines = linesParsed;
+        this.bytes = bytesProcessed;
+    }
+
+    @Override
+    public synchronized void onBatchSent(int batchesSent) {
+        this.batchesSent = batchesSent;
+    }
+
+    public synchronized String describe() {
+        StringBuilder summary = new StringBuilder()
+                .append("linhas=").append(lines)
+                .append(" bytes=").append(bytes)
+                .append(" lotes_enviados=").append(batchesSent)
+                .append(" total=").append((System.nanoTime() - startedAt) / 1_000_000).append("ms");
+        stageMillis.forEach((stage, millis) ->
+                summary.append(' ').append(stage).append('=').append(millis).append("ms"));
+        return summary.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package com.mercado.filemonitor.service;
+
+import com.mercado.filemonitor.config.FileMonitorConfig;
+import com.mercado.filemonitor.dto.ProdutoDTO;
+import com.mercado.filemonitor.util.LongIntHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catálogo atual em memória: o último produto enviado para cada id, somando todos os arquivos
+ * processados com sucesso (um arquivo de atualização de preços ou de uma loja não apaga os demais).
+ * O índice é um {@link LongIntHashMap} (id -> posição no array de produtos); cada arquivo copia o
+ * catálogo atual (cópia dos arrays, sem recalcular o hash dos ids já indexados), aplica só os
+ * produtos dele fora do caminho das consultas e publica o resultado numa referência volatile.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProdutoCatalogIndex {
+
+    private static final Catalog EMPTY = new Catalog(new LongIntHashMap(0), new ProdutoDTO[0], null, null);
+
+    private final FileMonitorConfig config;
+
+    private volatile Catalog catalog = EMPTY;
+
+    private static final class Catalog {
+        private final LongIntHashMap index;
+        private final ProdutoDTO[] produtos;
+        private final String sourceFileName;
+        private final LocalDateTime builtAt;
+
+        private Catalog(LongIntHashMap index, ProdutoDTO[] produtos, String sourceFileName, LocalDateTime builtAt) {
+            this.index = index;
+            this.produtos = produtos;
+            this.sourceFileName = sourceFileName;
+            this.builtAt = builtAt;
+        }
+    }
+
+    /**
+     * Aplica ao catálogo atual os produtos do arquivo (ou do trecho anexado, no modo tail): ids
+     * existentes são substituídos, novos são acrescentados. O catálogo novo é montado à parte e
+     * publicado de uma vez; workers terminando arquivos ao mesmo tempo aplicam um de cada vez.
+     */
+    public synchronized void merge(List<ProdutoDTO> produtos, String sourceFileName) {
+        if (!config.isCatalogIndexEnabled() || produtos.isEmpty()) {
+            return;
+        }
+        Catalog current = catalog;
+        // Sem reservar espaço para todos: num arquivo completo quase todos os ids já existem
+        LongIntHashMap index = current.index.copy();
+        ProdutoDTO[] array = Arrays.copyOf(current.produtos, current.produtos.length + produtos.size());
+        int size = current.produtos.length;
+        for (ProdutoDTO produto : produtos) {
+            Long id = produto.getId();
+            int position = id == null ? LongIntHashMap.NO_VALUE : index.get(id);
+            if (position == LongIntHashMap.NO_VALUE) {
+                if (id != null) {
+                    index.put(id, size);
+                }
+                array[size++] = produto;
+            } else {
+                array[position] = produto;
+            }
+        }
+        catalog = new Catalog(index, Arrays.copyOf(array, size), sourceFileName, LocalDateTime.now());
+        log.debug("Catálogo em memória atualizado com {} produtos de {} ({} no total)",
+                produtos.size(), sourceFileName, index.size());
+    }
+
+    public ProdutoDTO find(long id) {
+        Catalog current = catalog;
+        int position = current.index.get(id);
+        return position == LongIntHashMap.NO_VALUE ? null : current.produtos[position];
+    }
+
+    /**
+     * Consulta em lote contra um mesmo catálogo; posições sem produto ficam null
+     */
+    public ProdutoDTO[] findAll(long[] ids) {
+        Catalog current = catalog;
+        ProdutoDTO[] found = new ProdutoDTO[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            int position = current.index.get(ids[i]);
+            if (position != LongIntHashMap.NO_VALUE) {
+                found[i] = current.produtos[position];
+            }
+        }
+        return found;
+    }
+
+    public Map<String, Object> getStatus() {
+        Catalog current = catalog;
+        Map<String, Object> status = new HashMap<>();
+        status.put("enabled", config.isCatalogIndexEnabled());
+        status.put("size", current.index.size());
+        status.put("source_file", current.sourceFileName);
+        status.put("built_at", current.builtAt);
+        status.put("index_bytes", current.index.memoryBytes());
+        return status;
+    }
+}
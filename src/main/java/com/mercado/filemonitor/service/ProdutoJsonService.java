@@ -1,13 +1,16 @@
 package com.mercado.filemonitor.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.mercado.filemonitor.dto.ProdutoDTO;
+import com.mercado.filemonitor.util.JsonWriters;
+import com.mercado.filemonitor.util.OutputFiles;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
@@ -17,40 +20,37 @@ import java.util.List;
 import java.util.Map;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class ProdutoJsonService {
 
-    private final ObjectMapper objectMapper;
-
-    public ProdutoJsonService() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
-        this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
-    }
+    private final JsonWriters jsonWriters;
+    private final OutputFiles outputFiles;
 
     /**
      * Gera arquivo JSON de produtos
      */
     public Path generateProdutoJsonFile(List<ProdutoDTO> produtos, Path outputDirectory, String originalFileName) throws IOException {
-        log.info("Gerando arquivo JSON de produtos para {} itens", produtos.size());
+        log.debug("Gerando arquivo JSON de produtos para {} itens", produtos.size());
 
         // Criar diretório de saída se não existir
         Files.createDirectories(outputDirectory);
 
         // Gerar nome do arquivo JSON
         String jsonFileName = generateProdutoJsonFileName(originalFileName);
-        Path jsonFilePath = outputDirectory.resolve(jsonFileName);
-
-        // Criar estrutura do JSON com metadados
-        Map<String, Object> jsonOutput = new HashMap<>();
-        //jsonOutput.put("metadata", createProdutoMetadata(originalFileName, produtos.size()));
-        jsonOutput.put("produtos", produtos);
-
-        // Escrever JSON no arquivo
-        objectMapper.writeValue(jsonFilePath.toFile(), jsonOutput);
-
-        log.info("Arquivo JSON de produtos gerado: {}", jsonFilePath);
+        Path jsonFilePath = outputFiles.resolve(outputDirectory, jsonFileName);
+
+        // Escrever JSON no arquivo (comprimido em streaming quando configurado)
+        try (OutputStream out = outputFiles.open(jsonFilePath);
+             JsonGenerator generator = jsonWriters.createPrettyGenerator(out)) {
+            generator.writeStartObject();
+            //generator.writeObjectField("metadata", createProdutoMetadata(originalFileName, produtos.size()));
+            writeProdutos(generator, produtos);
+            generator.writeEndObject();
+        }
+
+        log.debug("Arquivo JSON de produtos gerado: {}", jsonFilePath);
+        outputFiles.applyRetention(outputDirectory, "produtos_" + baseName(originalFileName) + "_", ".json");
         return jsonFilePath;
     }
 
@@ -58,20 +58,37 @@ public class ProdutoJsonService {
      * Gera string JSON de produtos
      */
     public String generateProdutoJsonString(List<ProdutoDTO> produtos) throws IOException {
-        Map<String, Object> jsonOutput = new HashMap<>();
-        jsonOutput.put("produtos", produtos);
-        jsonOutput.put("total", produtos.size());
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = jsonWriters.createPrettyGenerator(json)) {
+            generator.writeStartObject();
+            generator.writeNumberField("total", produtos.size());
+            writeProdutos(generator, produtos);
+            generator.writeEndObject();
+        }
+        return json.toString();
+    }
 
-        return objectMapper.writeValueAsString(jsonOutput);
+    /**
+     * Produto a produto pelo writer pré-montado, sem passar a lista pelo serializador de coleções
+     */
+    private void writeProdutos(JsonGenerator generator, List<ProdutoDTO> produtos) throws IOException {
+        generator.writeArrayFieldStart("produtos");
+        for (ProdutoDTO produto : produtos) {
+            jsonWriters.produto().writeValue(generator, produto);
+        }
+        generator.writeEndArray();
     }
 
     /**
      * Gera nome do arquivo JSON para produtos
      */
     private String generateProdutoJsonFileName(String originalFileName) {
-        String baseName = originalFileName.replaceAll("\\.[^.]+$", ""); // Remove extensão
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        return String.format("produtos_%s_%s.json", baseName, timestamp);
+        return String.format("produtos_%s_%s.json", baseName(originalFileName), timestamp);
+    }
+
+    private String baseName(String originalFileName) {
+        return originalFileName.replaceAll("\\.[^.]+$", ""); // Remove extensão
     }
 
     /**
@@ -2,17 +2,39 @@ package com.mercado.filemonitor.service;
 
 import com.mercado.filemonitor.dto.PositionalRecord;
 import com.mercado.filemonitor.dto.ProdutoDTO;
+import com.mercado.filemonitor.util.LogSampler;
+import com.mercado.filemonitor.util.LongIntHashMap;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @Slf4j
 public class ProdutoMapperService {
 
+    public static final String DUPLICATE_POLICY_LAST = "last";
+    public static final String DUPLICATE_POLICY_FIRST = "first";
+    public static final String DUPLICATE_POLICY_NONE = "none";
+
+    private static final BigDecimal PRECO_PROMOCAO_PADRAO = BigDecimal.ZERO;
+    private static final String UNIDADE_MEDIDA_PADRAO = "X";
+    private static final String IMAGEM_PADRAO = "";
+    private static final int MAX_CATEGORIAS_EM_CACHE = 4096;
+    private static final LogSampler TRUNCATION_LOG_SAMPLER = new LogSampler(10, 1000);
+
+    private static final ProdutoDTO.CategoriaDTO CATEGORIA_GERAL = ProdutoDTO.CategoriaDTO.builder()
+            .id(1L) // ID padrão para categoria "Geral"
+            .nome("Geral")
+            .build();
+
+    // Poucas dezenas de categorias distintas: uma instância imutável por código, compartilhada entre produtos
+    private final Map<String, ProdutoDTO.CategoriaDTO> categorias = new ConcurrentHashMap<>();
+
     /**
      * Mapeia registros posicionais para DTOs de Produto
      * Regras de mapeamento:
@@ -22,47 +44,88 @@ public class ProdutoMapperService {
      * - produto.preco = positional.valor
      */
     public List<ProdutoDTO> mapToProdutos(List<PositionalRecord> records) {
-        log.info("Iniciando mapeamento de {} registros posicionais para produtos", records.size());
+        log.debug("Iniciando mapeamento de {} registros posicionais para produtos", records.size());
 
-        List<ProdutoDTO> produtos = records.stream()
-                .map(this::mapToProduto)
-                .collect(Collectors.toList());
+        List<ProdutoDTO> produtos = new ArrayList<>(records.size());
+        for (PositionalRecord record : records) {
+            produtos.add(mapToProduto(record));
+        }
 
-        log.info("Mapeamento concluído. {} produtos gerados", produtos.size());
+        log.debug("Mapeamento concluído. {} produtos gerados", produtos.size());
         return produtos;
     }
 
     /**
-     * Mapeia um registro posicional individual para ProdutoDTO
+     * Remove produtos com id repetido no mesmo arquivo (o ERP reenvia o código em correções de preço).
+     * Política "last": fica a última ocorrência, na posição da primeira; "first": fica a primeira;
+     * "none": lista inalterada. Produtos sem id nunca são descartados.
+     */
+    public List<ProdutoDTO> removeDuplicates(List<ProdutoDTO> produtos, String policy) {
+        if (DUPLICATE_POLICY_NONE.equalsIgnoreCase(policy)) {
+            return produtos;
+        }
+        boolean keepLast = !DUPLICATE_POLICY_FIRST.equalsIgnoreCase(policy);
+
+        LongIntHashMap positions = new LongIntHashMap(produtos.size());
+        List<ProdutoDTO> unicos = new ArrayList<>(produtos.size());
+        for (ProdutoDTO produto : produtos) {
+            Long id = produto.getId();
+            if (id == null) {
+                unicos.add(produto);
+                continue;
+            }
+            int position = positions.putIfAbsent(id, unicos.size());
+            if (position == LongIntHashMap.NO_VALUE) {
+                unicos.add(produto);
+            } else if (keepLast) {
+                unicos.set(position, produto);
+            }
+        }
+
+        if (unicos.size() < produtos.size()) {
+            log.debug("{} produtos com código repetido descartados (política {})",
+                    produtos.size() - unicos.size(), keepLast ? DUPLICATE_POLICY_LAST : DUPLICATE_POLICY_FIRST);
+        }
+        return unicos;
+    }
+
+    /**
+     * Mapeia um registro posicional individual para ProdutoDTO.
+     * Cada campo é percorrido uma única vez: o código sem zeros à esquerda serve
+     * tanto para o ID quanto para o código de barras.
      */
     private ProdutoDTO mapToProduto(PositionalRecord record) {
         try {
+            String codigo = record.getCodigo();
+            int inicioDigitos = indexOfSignificantDigit(codigo);
+            String nome = trimName(record.getNome());
+
             return ProdutoDTO.builder()
                     // Regra: produto.id = positional.codigo
-                    .id(parseCodigoToId(record.getCodigo()))
+                    .id(parseCodigoToId(codigo, inicioDigitos))
 
                     // Regra: produto.nome = positional.nome
-                    .nome(cleanAndValidateName(record.getNome()))
+                    .nome(cleanAndValidateName(nome))
 
                     // Descrição padrão baseada no nome
-                    .descricao(generateDescription(record.getNome(), record.getCategoria()))
+                    .descricao(generateDescription(nome))
 
                     // Regra: produto.preco = positional.valor
                     .preco(record.getValor())
 
                     // Campos padrão
-                    .precoPromocao(BigDecimal.ZERO)
-                    .codigoBarras(generateCodigoBarras(record.getCodigo()))
+                    .precoPromocao(PRECO_PROMOCAO_PADRAO)
+                    .codigoBarras(generateCodigoBarras(codigo, inicioDigitos))
                     .estoque(0)
                     .importado(false)
                     .ativo(true)
-                    .unidadeMedida("X") // Unidade padrão
+                    .unidadeMedida(UNIDADE_MEDIDA_PADRAO) // Unidade padrão
 
                     // Regra: produto.categoria.nome = positional.categoria
                     .categoria(mapToCategoria(record.getCategoria()))
 
                     // Imagem padrão
-                    .imagem("")
+                    .imagem(IMAGEM_PADRAO)
 
                     .build();
 
@@ -73,85 +136,110 @@ public class ProdutoMapperService {
     }
 
     /**
-     * Converte código string para ID Long
+     * Posição do primeiro dígito significativo do código (ignora espaços e zeros à esquerda)
      */
-    private Long parseCodigoToId(String codigo) {
-        if (codigo == null || codigo.trim().isEmpty()) {
+    private int indexOfSignificantDigit(String codigo) {
+        if (codigo == null) {
             throw new IllegalArgumentException("Código não pode estar vazio");
         }
-
-        try {
-            // Remove zeros à esquerda e converte para Long
-            String codigoLimpo = codigo.trim().replaceFirst("^0+", "");
-            if (codigoLimpo.isEmpty()) {
-                codigoLimpo = "0";
-            }
-            return Long.parseLong(codigoLimpo);
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Código inválido para conversão em ID: " + codigo);
+        int end = trimmedEnd(codigo);
+        int i = 0;
+        while (i < end && codigo.charAt(i) <= ' ') {
+            i++;
+        }
+        if (i == end) {
+            throw new IllegalArgumentException("Código não pode estar vazio");
+        }
+        while (i < end && codigo.charAt(i) == '0') {
+            i++;
         }
+        return i;
     }
 
     /**
-     * Limpa e valida o nome do produto
+     * Converte código string para ID Long, lendo os dígitos diretamente
      */
-    private String cleanAndValidateName(String nome) {
-        if (nome == null || nome.trim().isEmpty()) {
-            throw new IllegalArgumentException("Nome do produto não pode estar vazio");
+    private Long parseCodigoToId(String codigo, int inicioDigitos) {
+        int end = trimmedEnd(codigo);
+        long id = 0;
+        for (int i = inicioDigitos; i < end; i++) {
+            int digito = codigo.charAt(i) - '0';
+            if (digito < 0 || digito > 9 || id > (Long.MAX_VALUE - digito) / 10) {
+                throw new IllegalArgumentException("Código inválido para conversão em ID: " + codigo);
+            }
+            id = id * 10 + digito;
         }
+        return id;
+    }
 
-        String nomeLimpo = nome.trim();
+    private String trimName(String nome) {
+        if (nome == null || nome.isBlank()) {
+            throw new IllegalArgumentException("Nome do produto não pode estar vazio");
+        }
+        // O parser já entrega o campo sem espaços: trim() devolve a mesma instância nesse caso
+        return nome.trim();
+    }
 
+    /**
+     * Valida o tamanho máximo do nome do produto
+     */
+    private String cleanAndValidateName(String nomeLimpo) {
         // Validar tamanho máximo (conforme Produto.java)
         if (nomeLimpo.length() > 50) {
-            log.warn("Nome do produto truncado de {} para 50 caracteres: {}", nomeLimpo.length(), nomeLimpo);
-            nomeLimpo = nomeLimpo.substring(0, 50);
+            if (TRUNCATION_LOG_SAMPLER.tryAcquire()) {
+                log.warn("Nome do produto truncado de {} para 50 caracteres: {} ({} aviso(s) semelhante(s) omitido(s))",
+                        nomeLimpo.length(), nomeLimpo, TRUNCATION_LOG_SAMPLER.drainSuppressed());
+            }
+            return nomeLimpo.substring(0, 50);
         }
 
         return nomeLimpo;
     }
 
     /**
-     * Gera descrição baseada no nome e categoria
+     * Gera descrição baseada no nome (mesma instância do nome quando não precisa truncar)
      */
-    private String generateDescription(String nome, String categoria) {
-/*
-        String descricao = String.format("%s - %s", nome != null ? nome.trim() : "Produto",
-                categoria != null ? categoria.trim() : "Sem categoria");
-*/
-        String descricao = String.format("%s", nome != null ? nome.trim() : "Produto");
-
+    private String generateDescription(String nomeLimpo) {
         // Validar tamanho máximo (conforme Produto.java)
-        if (descricao.length() > 100) {
-            descricao = descricao.substring(0, 100);
-        }
-
-        return descricao;
+        return nomeLimpo.length() > 100 ? nomeLimpo.substring(0, 100) : nomeLimpo;
     }
 
     /**
-     * Gera código de barras baseado no código
+     * Gera código de barras baseado no código sem zeros à esquerda
      */
-    private String generateCodigoBarras(String codigo) {
-        if (codigo == null || codigo.trim().isEmpty()) {
-            return "";
-        }
-        String codigoAux = codigo.trim().replaceFirst("^0+", "");
+    private String generateCodigoBarras(String codigo, int inicioDigitos) {
         // Gera um código de barras simples baseado no código
-        return "789" + codigoAux.substring(0, Math.min(10, codigoAux.length()));
+        int end = Math.min(trimmedEnd(codigo), inicioDigitos + 10);
+        return "789".concat(codigo.substring(inicioDigitos, end));
+    }
+
+    private int trimmedEnd(String value) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
     }
 
     /**
-     * Mapeia categoria string para CategoriaDTO
+     * Mapeia categoria string para CategoriaDTO, reaproveitando a instância já criada para o código
      */
     private ProdutoDTO.CategoriaDTO mapToCategoria(String categoriaNome) {
-        if (categoriaNome == null || categoriaNome.trim().isEmpty()) {
-            return ProdutoDTO.CategoriaDTO.builder()
-                    .id(1L) // ID padrão para categoria "Geral"
-                    .nome("Geral")
-                    .build();
+        if (categoriaNome == null || categoriaNome.isBlank()) {
+            return CATEGORIA_GERAL;
+        }
+
+        ProdutoDTO.CategoriaDTO categoria = categorias.get(categoriaNome);
+        if (categoria != null) {
+            return categoria;
         }
+        if (categorias.size() >= MAX_CATEGORIAS_EM_CACHE) {
+            return createCategoria(categoriaNome);
+        }
+        return categorias.computeIfAbsent(categoriaNome, this::createCategoria);
+    }
 
+    private ProdutoDTO.CategoriaDTO createCategoria(String categoriaNome) {
         return ProdutoDTO.CategoriaDTO.builder()
                 .id(generateCategoriaId(categoriaNome))
                 .nome(categoriaNome.trim())
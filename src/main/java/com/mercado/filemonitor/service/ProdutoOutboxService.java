@@ -0,0 +1,277 @@
+package com.mercado.filemonitor.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mercado.filemonitor.config.ClientConfig;
+import com.mercado.filemonitor.dto.OutboxEntry;
+import com.mercado.filemonitor.entity.FileRecord;
+import com.mercado.filemonitor.util.BatchAcks;
+import com.mercado.filemonitor.util.JsonWriters;
+import com.mercado.filemonitor.util.ProdutoWebClient;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * Outbox local dos lotes que não puderam ser entregues ao import-txt.
+ * Os lotes são acrescentados a um arquivo NDJSON (append-only) e drenados em ordem,
+ * com limite de lotes por ciclo, quando o circuito do remoto volta a liberar chamadas.
+ * O offset já entregue fica em um arquivo separado; quando tudo foi entregue os dois são removidos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProdutoOutboxService implements SchedulingConfigurer {
+
+    private static final String OUTBOX_FILE = "outbox.ndjson";
+    private static final String OFFSET_FILE = "outbox.offset";
+
+    private final ClientConfig config;
+    private final ProdutoWebClient produtoWebClient;
+    private final FileRecordService fileRecordService;
+    private final ObjectMapper objectMapper;
+    private final JsonWriters jsonWriters;
+
+    private final Object fileLock = new Object();
+
+    /**
+     * Grava os lotes no final do outbox e força a escrita em disco
+     */
+    public void spool(List<OutboxEntry> entries) throws IOException {
+        Path outbox = outboxFile();
+        synchronized (fileLock) {
+            Files.createDirectories(outbox.getParent());
+            try (FileChannel channel = FileChannel.open(outbox,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+                for (OutboxEntry entry : entries) {
+                    out.write(jsonWriters.outboxEntry().writeValueAsBytes(entry));
+                    out.write('\n');
+                }
+                out.flush();
+                channel.force(false);
+            }
+        }
+        log.debug("{} lote(s) gravado(s) no outbox: {}", entries.size(), outbox);
+    }
+
+    /**
+     * Indica se ainda há lotes aguardando entrega (novos envios devem entrar na fila atrás deles)
+     */
+    public boolean hasPending() {
+        Path outbox = outboxFile();
+        try {
+            return Files.exists(outbox) && Files.size(outbox) > readOffset();
+        } catch (IOException e) {
+            log.warn("Erro ao verificar outbox: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Intervalo de drenagem lido a cada ciclo, acompanhando recargas da configuração
+     */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addTriggerTask(this::drain, context -> {
+            Instant lastCompletion = context.lastCompletion();
+            return (lastCompletion == null ? Instant.now() : lastCompletion)
+                    .plusMillis(config.getOutboxDrainIntervalMs());
+        });
+    }
+
+    public void drain() {
+        Path outbox = outboxFile();
+        if (!Files.exists(outbox)) {
+            return;
+        }
+
+        try {
+            long offset = readOffset();
+            int sent = 0;
+            int rejected = 0;
+
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(outbox), 64 * 1024)) {
+                in.skipNBytes(offset);
+                while (sent + rejected < config.getOutboxDrainMaxBatches()) {
+                    byte[] line = readLine(in);
+                    if (line == null) {
+                        break;
+                    }
+
+                    OutboxEntry entry;
+                    try {
+                        entry = objectMapper.readValue(line, OutboxEntry.class);
+                    } catch (IOException e) {
+                        log.error("Entrada inválida no outbox na posição {}, descartando: {}", offset, e.getMessage());
+                        offset += line.length + 1;
+                        writeOffset(offset);
+                        continue;
+                    }
+
+                    try {
+                        produtoWebClient.enviarProdutos(entry.getProdutos(), entry.getIdempotencyKey());
+                    } catch (WebClientResponseException e) {
+                        if (!e.getStatusCode().is4xxClientError()) {
+                            log.warn("Remoto falhou, drenagem do outbox interrompida: {}", e.getMessage());
+                            break;
+                        }
+                        // Recusa do payload: reenviar não adianta e travaria todos os lotes atrás deste
+                        log.error("Remoto recusou o lote {} de {} de {}, descartando do outbox: {}",
+                                entry.getBatchIndex() + 1, entry.getBatchCount(), entry.getSource(), e.getMessage());
+                        offset += line.length + 1;
+                        writeOffset(offset);
+                        markRejected(entry, e);
+                        rejected++;
+                        continue;
+                    } catch (RuntimeException e) {
+                        log.warn("Remoto ainda indisponível, drenagem do outbox interrompida: {}", e.getMessage());
+                        break;
+                    }
+
+                    offset += line.length + 1;
+                    writeOffset(offset);
+                    sent++;
+                    markAcknowledged(entry);
+                }
+            }
+
+            if (sent > 0) {
+                log.info("{} lote(s) do outbox entregue(s) ao remoto", sent);
+            }
+            compactIfDrained(offset);
+        } catch (IOException e) {
+            log.error("Erro ao drenar outbox {}: {}", outbox, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Registra o lote como confirmado; com todos os lotes confirmados o arquivo passa a COMPLETED
+     */
+    private void markAcknowledged(OutboxEntry entry) {
+        AtomicBoolean completed = new AtomicBoolean();
+        updateOwner(entry, fileRecord -> {
+            BitSet acked = BatchAcks.decode(fileRecord.getAckedBatches());
+            acked.set(entry.getBatchIndex());
+            fileRecord.setAckedBatches(BatchAcks.encode(acked));
+
+            completed.set(fileRecord.getStatus() == FileRecord.ProcessingStatus.SPOOLED
+                    && acked.cardinality() >= entry.getBatchCount());
+            if (completed.get()) {
+                fileRecord.setStatus(FileRecord.ProcessingStatus.COMPLETED);
+                fileRecord.setProcessedAt(LocalDateTime.now());
+                fileRecord.setErrorMessage(null);
+            }
+        }).filter(fileRecord -> completed.get())
+                .ifPresent(fileRecord -> log.info("Arquivo {} entregue ao remoto a partir do outbox", fileRecord.getFileName()));
+    }
+
+    /**
+     * Lote recusado pelo remoto: o arquivo passa a ERROR e não é concluído pelos lotes seguintes
+     */
+    private void markRejected(OutboxEntry entry, WebClientResponseException e) {
+        updateOwner(entry, fileRecord -> {
+            fileRecord.setStatus(FileRecord.ProcessingStatus.ERROR);
+            fileRecord.setProcessedAt(LocalDateTime.now());
+            fileRecord.setErrorMessage("Remoto recusou o lote " + (entry.getBatchIndex() + 1)
+                    + " de " + entry.getBatchCount() + ": " + e.getStatusCode().value());
+        });
+    }
+
+    /**
+     * Altera o FileRecord do lote. O outbox sobrevive a um reinício e o banco não (os ids recomeçam),
+     * então o id só vale se a chave de idempotência do lote for a do conteúdo do registro; senão o
+     * lote é apenas retirado do outbox.
+     */
+    private Optional<FileRecord> updateOwner(OutboxEntry entry, Consumer<FileRecord> change) {
+        if (entry.getFileRecordId() == null) {
+            return Optional.empty();
+        }
+        AtomicBoolean owner = new AtomicBoolean();
+        Optional<FileRecord> updated = fileRecordService.update(entry.getFileRecordId(), fileRecord -> {
+            owner.set(entry.getIdempotencyKey() != null && entry.getIdempotencyKey().equals(
+                    BatchAcks.idempotencyKey(fileRecord.getContentHash(), entry.getBatchIndex())));
+            if (owner.get()) {
+                change.accept(fileRecord);
+            }
+        });
+        if (!owner.get()) {
+            log.debug("Lote {} de {} do outbox não pertence ao registro {} atual, status não alterado",
+                    entry.getBatchIndex() + 1, entry.getSource(), entry.getFileRecordId());
+            return Optional.empty();
+        }
+        return updated;
+    }
+
+    private void compactIfDrained(long offset) throws IOException {
+        synchronized (fileLock) {
+            Path outbox = outboxFile();
+            if (Files.exists(outbox) && Files.size(outbox) <= offset) {
+                Files.deleteIfExists(outbox);
+                Files.deleteIfExists(offsetFile());
+            }
+        }
+    }
+
+    /**
+     * Lê uma linha completa; retorna null no fim do arquivo ou se a última linha ainda está sendo escrita
+     */
+    private byte[] readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(4096);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                return line.toByteArray();
+            }
+            line.write(b);
+        }
+        return null;
+    }
+
+    private long readOffset() throws IOException {
+        Path offsetFile = offsetFile();
+        if (!Files.exists(offsetFile)) {
+            return 0;
+        }
+        String value = Files.readString(offsetFile, StandardCharsets.US_ASCII).trim();
+        return value.isEmpty() ? 0 : Long.parseLong(value);
+    }
+
+    private void writeOffset(long offset) throws IOException {
+        Path offsetFile = offsetFile();
+        Path temp = offsetFile.resolveSibling(OFFSET_FILE + ".tmp");
+        Files.writeString(temp, Long.toString(offset), StandardCharsets.US_ASCII);
+        Files.move(temp, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path outboxFile() {
+        return Paths.get(config.getOutboxDirectory()).resolve(OUTBOX_FILE);
+    }
+
+    private Path offsetFile() {
+        return Paths.get(config.getOutboxDirectory()).resolve(OFFSET_FILE);
+    }
+}
@@ -0,0 +1,40 @@
+package com.mercado.filemonitor.service;
+
+import com.mercado.filemonitor.dto.ProdutoDTO;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destino dos produtos de um arquivo processado (HTTP, spool NDJSON, fila em processo...).
+ * Para cada arquivo o dispatcher abre uma sessão, entrega os lotes em ordem pela mesma thread
+ * e chama {@link Session#flush()} ao final, ou {@link Session#abort()} se o sink falhar ou o
+ * processamento for cancelado. Cada sink roda em paralelo aos demais.
+ */
+public interface ProdutoSink {
+
+    /**
+     * Nome usado em {@code file.monitor.sinks} para habilitar o sink
+     */
+    String getName();
+
+    Session open(ProdutoSinkContext context) throws IOException;
+
+    interface Session {
+
+        /**
+         * Recebe o próximo lote do arquivo (os lotes chegam na ordem do arquivo)
+         */
+        void accept(List<ProdutoDTO> batch) throws IOException;
+
+        /**
+         * Fim do arquivo: grava o que estiver pendente e libera recursos
+         */
+        void flush() throws IOException;
+
+        /**
+         * Entrega interrompida (falha do sink, cancelamento ou erro no flush): libera recursos e
+         * descarta o que estiver incompleto. Não é chamado depois de um flush bem-sucedido.
+         */
+        void abort();
+    }
+}
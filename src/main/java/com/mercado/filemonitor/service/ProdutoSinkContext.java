@@ -0,0 +1,19 @@
+package com.mercado.filemonitor.service;
+
+import com.mercado.filemonitor.entity.FileRecord;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Dados do arquivo em entrega, compartilhados pelas sessões de todos os sinks
+ */
+@Getter
+@Builder
+public class ProdutoSinkContext {
+
+    private final FileRecord fileRecord;
+    private final String sourceFileName;
+    private final int batchSize;
+    private final int batchCount;
+    private final ProgressListener listener;
+}
@@ -0,0 +1,215 @@
+package com.mercado.filemonitor.service;
+
+import com.mercado.filemonitor.config.ClientConfig;
+import com.mercado.filemonitor.config.FileMonitorConfig;
+import com.mercado.filemonitor.dto.ProdutoDTO;
+import com.mercado.filemonitor.entity.FileRecord;
+import com.mercado.filemonitor.util.ProdutoSinkException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Entrega os produtos de um arquivo a todos os sinks habilitados em {@code file.monitor.sinks}.
+ * O arquivo é lido uma única vez; cada sink consome os lotes em sua própria thread a partir
+ * de um buffer limitado, então um sink lento só segura a entrega quando o buffer dele enche.
+ */
+@Service
+@Slf4j
+public class ProdutoSinkDispatcher {
+
+    // Marcas de fim do arquivo e de entrega cancelada na fila de cada sink (comparadas por referência)
+    private static final List<ProdutoDTO> END = new ArrayList<>();
+    private static final List<ProdutoDTO> ABORT = new ArrayList<>();
+
+    private final List<ProdutoSink> sinks;
+    private final FileMonitorConfig config;
+    private final ClientConfig clientConfig;
+    private final ExecutorService executor;
+
+    public ProdutoSinkDispatcher(List<ProdutoSink> sinks, FileMonitorConfig config, ClientConfig clientConfig) {
+        this.sinks = sinks;
+        this.config = config;
+        this.clientConfig = clientConfig;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "produto-sink-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void logEnabledSinks() {
+        List<String> available = sinks.stream().map(ProdutoSink::getName).collect(Collectors.toList());
+        for (String name : config.getSinks()) {
+            if (!available.contains(name.trim())) {
+                log.warn("Sink '{}' configurado em file.monitor.sinks não existe (disponíveis: {})", name, available);
+            }
+        }
+        log.info("Sinks de produtos habilitados: {}", enabledSinks().stream().map(ProdutoSink::getName).collect(Collectors.toList()));
+    }
+
+    /**
+     * Entrega os produtos em lotes de {@code app-mercado.remote.batch-size} aos sinks habilitados
+     * e aguarda todos terminarem. Falha de um sink não interrompe os demais.
+     *
+     * @param sourceFileName nome do arquivo com a origem, base dos artefatos gerados pelos sinks
+     */
+    public void dispatch(FileRecord fileRecord, String sourceFileName, List<ProdutoDTO> produtos,
+                         ProgressListener listener) {
+        List<ProdutoSink> enabled = enabledSinks();
+        if (enabled.isEmpty() || produtos.isEmpty()) {
+            return;
+        }
+
+        int batchSize = Math.max(1, clientConfig.getBatchSize());
+        int batchCount = (produtos.size() + batchSize - 1) / batchSize;
+        ProdutoSinkContext context = ProdutoSinkContext.builder()
+                .fileRecord(fileRecord)
+                .sourceFileName(sourceFileName)
+                .batchSize(batchSize)
+                .batchCount(batchCount)
+                .listener(listener)
+                .build();
+
+        List<SinkWorker> workers = new ArrayList<>(enabled.size());
+        for (ProdutoSink sink : enabled) {
+            SinkWorker worker = new SinkWorker(sink, context);
+            worker.future = executor.submit(worker);
+            workers.add(worker);
+        }
+
+        boolean cancelled = false;
+        try {
+            for (int batch = 0; batch < batchCount && !cancelled; batch++) {
+                List<ProdutoDTO> produtosDoLote =
+                        produtos.subList(batch * batchSize, Math.min(produtos.size(), (batch + 1) * batchSize));
+                for (SinkWorker worker : workers) {
+                    worker.queue.put(produtosDoLote);
+                }
+                cancelled = listener.isCancelled();
+            }
+            for (SinkWorker worker : workers) {
+                worker.queue.put(cancelled ? ABORT : END);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.forEach(worker -> worker.future.cancel(true));
+            throw new ProdutoSinkException("Entrega aos sinks interrompida", e);
+        }
+
+        List<String> failures = new ArrayList<>();
+        Throwable firstCause = null;
+        for (SinkWorker worker : workers) {
+            try {
+                worker.future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                workers.forEach(w -> w.future.cancel(true));
+                throw new ProdutoSinkException("Entrega aos sinks interrompida", e);
+            } catch (ExecutionException e) {
+                log.error("Sink '{}' falhou para {}: {}", worker.sink.getName(), fileRecord.getFileName(),
+                        e.getCause().getMessage(), e.getCause());
+                failures.add(worker.sink.getName() + ": " + e.getCause().getMessage());
+                firstCause = firstCause == null ? e.getCause() : firstCause;
+            }
+        }
+
+        if (cancelled) {
+            throw new CancellationException("Processamento cancelado durante a entrega aos sinks");
+        }
+        if (!failures.isEmpty()) {
+            throw new ProdutoSinkException(String.join("; ", failures), firstCause);
+        }
+    }
+
+    private List<ProdutoSink> enabledSinks() {
+        List<String> names = config.getSinks().stream().map(String::trim).collect(Collectors.toList());
+        return sinks.stream().filter(sink -> names.contains(sink.getName())).collect(Collectors.toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Consome os lotes de um sink. Depois de uma falha continua retirando (e descartando)
+     * os lotes até o fim, para não bloquear a entrega aos outros sinks. Sessão que não chega
+     * ao flush (falha, cancelamento ou interrupção) é abortada.
+     */
+    private final class SinkWorker implements Callable<Void> {
+
+        private final ProdutoSink sink;
+        private final ProdutoSinkContext context;
+        private final BlockingQueue<List<ProdutoDTO>> queue;
+        private Future<Void> future;
+
+        private SinkWorker(ProdutoSink sink, ProdutoSinkContext context) {
+            this.sink = sink;
+            this.context = context;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, config.getSinkBufferBatches()));
+        }
+
+        @Override
+        public Void call() throws Exception {
+            Exception failure = null;
+            ProdutoSink.Session session = null;
+            boolean flushed = false;
+            try {
+                try {
+                    session = sink.open(context);
+                } catch (Exception e) {
+                    failure = e;
+                }
+
+                List<ProdutoDTO> batch;
+                while ((batch = queue.take()) != END && batch != ABORT) {
+                    if (failure == null) {
+                        try {
+                            session.accept(batch);
+                        } catch (Exception e) {
+                            failure = e;
+                        }
+                    }
+                }
+
+                if (failure != null) {
+                    throw failure;
+                }
+                if (batch == END) {
+                    session.flush();
+                    flushed = true;
+                }
+                return null;
+            } finally {
+                if (session != null && !flushed) {
+                    abort(session);
+                }
+            }
+        }
+
+        private void abort(ProdutoSink.Session session) {
+            try {
+                session.abort();
+            } catch (RuntimeException e) {
+                log.warn("Erro ao abortar a sessão do sink '{}': {}", sink.getName(), e.getMessage());
+            }
+        }
+    }
+}
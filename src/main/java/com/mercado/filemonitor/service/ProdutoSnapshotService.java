@@ -0,0 +1,128 @@
+package com.mercado.filemonitor.service;
+
+import com.mercado.filemonitor.dto.ProdutoDTO;
+import com.mercado.filemonitor.util.OutputFiles;
+import com.mercado.filemonitor.util.ProdutoSnapshotFormat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Gera o snapshot binário compacto dos produtos (formato em {@link ProdutoSnapshotFormat}),
+ * lido por {@link com.mercado.filemonitor.util.ProdutoSnapshotReader}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProdutoSnapshotService {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final OutputFiles outputFiles;
+
+    /**
+     * Gera arquivo de snapshot de produtos
+     */
+    public Path generateSnapshotFile(List<ProdutoDTO> produtos, Path outputDirectory, String originalFileName) throws IOException {
+        log.debug("Gerando snapshot binário de produtos para {} itens", produtos.size());
+
+        Files.createDirectories(outputDirectory);
+        Path snapshotPath = outputDirectory.resolve(generateSnapshotFileName(originalFileName));
+
+        int count = produtos.size();
+        long[] ids = new long[count];
+        long[] offsets = new long[count];
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(snapshotPath), BUFFER_SIZE))) {
+
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            DataOutputStream headerOut = new DataOutputStream(header);
+            headerOut.writeInt(ProdutoSnapshotFormat.MAGIC);
+            headerOut.writeShort(ProdutoSnapshotFormat.VERSION);
+            headerOut.writeLong(System.currentTimeMillis());
+            headerOut.writeUTF(originalFileName);
+            header.writeTo(out);
+
+            long recordsOffset = header.size();
+            long position = recordsOffset;
+            ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+            DataOutputStream recordOut = new DataOutputStream(record);
+
+            for (int i = 0; i < count; i++) {
+                ProdutoDTO produto = produtos.get(i);
+                record.reset();
+                ProdutoSnapshotFormat.writeProduto(recordOut, produto);
+
+                ids[i] = produto.getId();
+                offsets[i] = position;
+                out.writeInt(record.size());
+                record.writeTo(out);
+                position += 4 + record.size();
+            }
+
+            sortIndex(ids, offsets);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(ids[i]);
+                out.writeLong(offsets[i]);
+            }
+
+            out.writeLong(recordsOffset);
+            out.writeLong(position);
+            out.writeInt(count);
+            out.writeInt(ProdutoSnapshotFormat.MAGIC);
+        }
+
+        log.debug("Snapshot binário de produtos gerado: {}", snapshotPath);
+        outputFiles.applyRetention(outputDirectory, "produtos_" + baseName(originalFileName) + "_", ProdutoSnapshotFormat.EXTENSION);
+        return snapshotPath;
+    }
+
+    /**
+     * Ordena o índice por id. Os arquivos normalmente já vêm ordenados por código,
+     * então na maioria dos casos a verificação inicial basta.
+     */
+    private void sortIndex(long[] ids, long[] offsets) {
+        boolean sorted = true;
+        for (int i = 1; i < ids.length && sorted; i++) {
+            sorted = ids[i - 1] <= ids[i];
+        }
+        if (sorted) {
+            return;
+        }
+
+        long[][] entries = new long[ids.length][];
+        for (int i = 0; i < ids.length; i++) {
+            entries[i] = new long[]{ids[i], offsets[i]};
+        }
+        Arrays.sort(entries, Comparator.comparingLong((long[] entry) -> entry[0]));
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = entries[i][0];
+            offsets[i] = entries[i][1];
+        }
+    }
+
+    /**
+     * Gera nome do arquivo de snapshot
+     */
+    private String generateSnapshotFileName(String originalFileName) {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        return String.format("produtos_%s_%s%s", baseName(originalFileName), timestamp, ProdutoSnapshotFormat.EXTENSION);
+    }
+
+    private String baseName(String originalFileName) {
+        return originalFileName.replaceAll("\\.[^.]+$", ""); // Remove extensão
+    }
+}
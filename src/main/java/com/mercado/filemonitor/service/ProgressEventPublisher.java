@@ -0,0 +1,114 @@
+package com.mercado.filemonitor.service;
+
+import com.mercado.filemonitor.config.FileMonitorConfig;
+import com.mercado.filemonitor.dto.ProgressEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publica eventos de andamento do pipeline em um ring buffer sem locks.
+ * Quem publica nunca bloqueia: cada evento ocupa o próximo slot e sobrescreve o mais antigo;
+ * os leitores (streams SSE) acompanham pelo número de sequência e pulam o que já foi sobrescrito.
+ */
+@Component
+public class ProgressEventPublisher {
+
+    private final AtomicReferenceArray<ProgressEvent> slots;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    public ProgressEventPublisher(FileMonitorConfig config) {
+        int capacity = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(16, config.getProgressBufferSize()) - 1));
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Cria o listener que publica o andamento de um arquivo
+     */
+    public ProgressListener trackerFor(String fileName) {
+        return new FileTracker(fileName);
+    }
+
+    public long currentSequence() {
+        return nextSequence.get();
+    }
+
+    /**
+     * Lê os eventos publicados a partir do cursor e avança o cursor.
+     * Se o leitor ficou para trás mais que a capacidade do buffer, os eventos perdidos são descartados.
+     */
+    public List<ProgressEvent> readSince(AtomicLong cursor, String fileName) {
+        long head = nextSequence.get();
+        long sequence = Math.max(cursor.get(), head - slots.length());
+        List<ProgressEvent> events = new ArrayList<>();
+
+        for (; sequence < head; sequence++) {
+            ProgressEvent event = slots.get((int) (sequence & mask));
+            if (event == null || event.getSequence() < sequence) {
+                // slot reservado mas ainda não escrito pelo publicador: tenta de novo na próxima leitura
+                break;
+            }
+            if (event.getSequence() == sequence
+                    && (fileName == null || fileName.equals(event.getFileName()))) {
+                events.add(event);
+            }
+        }
+        cursor.set(sequence);
+        return events;
+    }
+
+    private void publish(ProgressEvent event) {
+        long sequence = nextSequence.getAndIncrement();
+        event.setSequence(sequence);
+        slots.set((int) (sequence & mask), event);
+    }
+
+    private final class FileTracker implements ProgressListener {
+        private final String fileName;
+        private final long startNanos = System.nanoTime();
+        private volatile String stage;
+        private volatile long lines;
+        private volatile long bytes;
+        private volatile int batchesSent;
+
+        private FileTracker(String fileName) {
+            this.fileName = fileName;
+        }
+
+        @Override
+        public void onStage(String stage) {
+            this.stage = stage;
+            publishSnapshot();
+        }
+
+        @Override
+        public void onProgress(long linesProcessed, long bytesProcessed) {
+            this.lines = linesProcessed;
+            this.bytes = bytesProcessed;
+            publishSnapshot();
+        }
+
+        @Override
+        public void onBatchSent(int batchesSent) {
+            this.batchesSent = batchesSent;
+            publishSnapshot();
+        }
+
+        private void publishSnapshot() {
+            long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+            publish(ProgressEvent.builder()
+                    .fileName(fileName)
+                    .stage(stage)
+                    .linesParsed(lines)
+                    .bytesProcessed(bytes)
+                    .batchesSent(batchesSent)
+                    .linesPerSecond(lines * 1_000_000_000L / elapsedNanos)
+                    .timestamp(System.currentTimeMillis())
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.mercado.filemonitor.service;
+
+/**
+ * Recebe o andamento do processamento de um arquivo (etapas, linhas e bytes lidos)
+ * e permite que quem acompanha o processamento solicite o cancelamento.
+ */
+public interface ProgressListener {
+
+    ProgressListener NONE = new ProgressListener() {
+    };
+
+    /**
+     * Chamado a cada mudança de etapa do processamento
+     */
+    default void onStage(String stage) {
+    }
+
+    /**
+     * Chamado periodicamente durante o parse com os totais acumulados
+     */
+    default void onProgress(long linesProcessed, long bytesProcessed) {
+    }
+
+    /**
+     * Chamado após cada lote enviado ao destino remoto, com o total de lotes enviados
+     */
+    default void onBatchSent(int batchesSent) {
+    }
+
+    default boolean isCancelled() {
+        return false;
+    }
+
+    /**
+     * Combina dois listeners: os eventos vão para ambos e o cancelamento vale se qualquer um pedir
+     */
+    static ProgressListener both(ProgressListener first, ProgressListener second) {
+        return new ProgressListener() {
+            @Override
+            public void onStage(String stage) {
+                first.onStage(stage);
+                second.onStage(stage);
+            }
+
+            @Override
+            public void onProgress(long linesProcessed, long bytesProcessed) {
+                first.onProgress(linesProcessed, bytesProcessed);
+                second.onProgress(linesProcessed, bytesProcessed);
+            }
+
+            @Override
+            public void onBatchSent(int batchesSent) {
+                first.onBatchSent(batchesSent);
+                second.onBatchSent(batchesSent);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return first.isCancelled() || second.isCancelled();
+            }
+        };
+    }
+}
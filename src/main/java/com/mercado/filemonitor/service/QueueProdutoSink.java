@@ -0,0 +1,96 @@
+package com.mercado.filemonitor.service;
+
+import com.mercado.filemonitor.config.FileMonitorConfig;
+import com.mercado.filemonitor.dto.ProdutoBatch;
+import com.mercado.filemonitor.dto.ProdutoDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fila em processo para consumidores dentro da própria aplicação.
+ * Cada consumidor registrado recebe todos os lotes em uma fila limitada própria;
+ * fila cheia segura a entrega (backpressure) até o consumidor retirar lotes. Um consumidor que
+ * não retira nada por {@code queue-sink-offer-timeout-ms} é descadastrado, para não travar este
+ * sink e, com ele, os outros sinks e o processamento do arquivo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QueueProdutoSink implements ProdutoSink {
+
+    public static final String NAME = "queue";
+
+    private final FileMonitorConfig config;
+    private final List<BlockingQueue<ProdutoBatch>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Registra um consumidor e retorna a fila de onde ele deve retirar os lotes
+     */
+    public BlockingQueue<ProdutoBatch> subscribe() {
+        BlockingQueue<ProdutoBatch> queue = new ArrayBlockingQueue<>(Math.max(1, config.getQueueSinkCapacity()));
+        subscribers.add(queue);
+        return queue;
+    }
+
+    public void unsubscribe(BlockingQueue<ProdutoBatch> queue) {
+        subscribers.remove(queue);
+    }
+
+    @Override
+    public Session open(ProdutoSinkContext context) {
+        if (subscribers.isEmpty()) {
+            log.debug("Nenhum consumidor registrado na fila de produtos, lotes de {} serão descartados",
+                    context.getSourceFileName());
+        }
+
+        return new Session() {
+            private int batch;
+
+            @Override
+            public void accept(List<ProdutoDTO> produtos) throws InterruptedIOException {
+                ProdutoBatch message = ProdutoBatch.builder()
+                        .source(context.getSourceFileName())
+                        .fileRecordId(context.getFileRecord().getId())
+                        .batchIndex(batch++)
+                        .batchCount(context.getBatchCount())
+                        .produtos(produtos)
+                        .build();
+                try {
+                    for (BlockingQueue<ProdutoBatch> queue : subscribers) {
+                        if (!queue.offer(message, config.getQueueSinkOfferTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                            unsubscribe(queue);
+                            log.warn("Consumidor da fila de produtos parado há {} ms com {} lote(s) pendente(s), "
+                                            + "descadastrado no lote {} de {} de {}", config.getQueueSinkOfferTimeoutMs(),
+                                    queue.size(), message.getBatchIndex() + 1, message.getBatchCount(), message.getSource());
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Entrega na fila de produtos interrompida");
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void abort() {
+                // Os lotes já entregues ficam com os consumidores (eles sabem o total por batchCount)
+            }
+        };
+    }
+}
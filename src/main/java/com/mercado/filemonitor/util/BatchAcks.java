@@ -0,0 +1,79 @@
+package com.mercado.filemonitor.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.HexFormat;
+
+/**
+ * Utilitários da entrega idempotente em lotes: hash do conteúdo do arquivo,
+ * chave de idempotência por lote e o conjunto de lotes confirmados gravado no FileRecord.
+ */
+public final class BatchAcks {
+
+    public static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+
+    private BatchAcks() {
+    }
+
+    /**
+     * SHA-256 do conteúdo do arquivo, em hexadecimal
+     */
+    public static String contentHash(Path filePath) throws IOException {
+        return contentHash(filePath, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * SHA-256 do trecho [from, to) do arquivo. Fora do início o offset entra no hash: o mesmo conteúdo
+     * anexado em outra posição (modo tail) gera outras chaves de idempotência.
+     */
+    public static String contentHash(Path filePath, long from, long to) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+        if (from > 0) {
+            digest.update(Long.toString(from).getBytes(StandardCharsets.US_ASCII));
+            digest.update((byte) ':');
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+             InputStream in = Channels.newInputStream(channel.position(from))) {
+            long remaining = to - from;
+            int read;
+            while (remaining > 0 && (read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+                digest.update(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Chave determinística do lote: o mesmo conteúdo e índice geram sempre a mesma chave
+     */
+    public static String idempotencyKey(String contentHash, int batchIndex) {
+        return contentHash + "-" + batchIndex;
+    }
+
+    public static BitSet decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return new BitSet();
+        }
+        return BitSet.valueOf(Base64.getDecoder().decode(encoded));
+    }
+
+    public static String encode(BitSet acked) {
+        return Base64.getEncoder().encodeToString(acked.toByteArray());
+    }
+}
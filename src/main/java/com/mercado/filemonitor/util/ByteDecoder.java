@@ -0,0 +1,81 @@
+package com.mercado.filemonitor.util;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodifica trechos de bytes da linha no charset configurado do arquivo.
+ * Charsets de um byte (ISO-8859-1, windows-1252...) usam uma tabela de 256 posições,
+ * sem validação nem CharsetDecoder por campo; os demais decodificam trocando
+ * sequências inválidas pelo caractere de substituição em vez de falhar o arquivo.
+ */
+public final class ByteDecoder {
+
+    private final Charset charset;
+    private final char[] table;
+
+    private ByteDecoder(Charset charset, char[] table) {
+        this.charset = charset;
+        this.table = table;
+    }
+
+    public static ByteDecoder forCharset(Charset charset) {
+        return new ByteDecoder(charset, isSingleByte(charset) ? buildTable(charset) : null);
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public boolean isSingleByte() {
+        return table != null;
+    }
+
+    public String decode(byte[] buffer, int start, int end) {
+        int length = end - start;
+        if (length <= 0) {
+            return "";
+        }
+        if (table == null) {
+            return new String(buffer, start, length, charset);
+        }
+        if (charset.equals(StandardCharsets.ISO_8859_1)) {
+            // Mapeamento direto byte -> char, a JVM copia sem decodificar
+            return new String(buffer, start, length, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = table[buffer[start + i] & 0xFF];
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        return charset.name() + (isSingleByte() ? " (tabela)" : "");
+    }
+
+    private static boolean isSingleByte(Charset charset) {
+        return charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1.0f;
+    }
+
+    private static char[] buildTable(Charset charset) {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        char[] table = new char[256];
+        for (int b = 0; b < 256; b++) {
+            try {
+                CharBuffer decoded = decoder.reset().decode(ByteBuffer.wrap(new byte[]{(byte) b}));
+                table[b] = decoded.length() == 1 ? decoded.get(0) : '\uFFFD';
+            } catch (Exception e) {
+                table[b] = '\uFFFD';
+            }
+        }
+        return table;
+    }
+}
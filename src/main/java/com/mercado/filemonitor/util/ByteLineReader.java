@@ -0,0 +1,126 @@
+package com.mercado.filemonitor.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Lê um arquivo linha a linha direto em bytes, sem decodificar: a linha atual fica em
+ * {@link #buffer()} entre {@link #start()} e {@link #end()} (sem \n / \r\n) e só é
+ * válida até a próxima chamada de {@link #next()}. O buffer cresce se uma linha não couber.
+ * Para ler a partir do meio do arquivo (modo tail), informe o offset onde o stream começa e,
+ * se o arquivo ainda estiver sendo escrito, descarte a última linha sem quebra.
+ */
+public class ByteLineReader implements Closeable {
+
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final InputStream in;
+    private byte[] buffer;
+    private int filled;
+    private int lineStart;
+    private int start;
+    private int end;
+    private long position;
+    private boolean eof;
+    private boolean first;
+    private final boolean completeLinesOnly;
+
+    public ByteLineReader(InputStream in, int bufferSize) {
+        this(in, bufferSize, 0, false);
+    }
+
+    /**
+     * @param startOffset       posição do arquivo onde o stream começa (o BOM só é tratado no offset 0)
+     * @param completeLinesOnly ignora a última linha se ela não terminar em \n
+     */
+    public ByteLineReader(InputStream in, int bufferSize, long startOffset, boolean completeLinesOnly) {
+        this.in = in;
+        this.buffer = new byte[Math.max(1024, bufferSize)];
+        this.position = startOffset;
+        this.first = startOffset == 0;
+        this.completeLinesOnly = completeLinesOnly;
+    }
+
+    /**
+     * Avança para a próxima linha; retorna false no fim do arquivo
+     */
+    public boolean next() throws IOException {
+        int scan = lineStart;
+        while (true) {
+            for (int i = scan; i < filled; i++) {
+                if (buffer[i] == '\n') {
+                    setLine(i, i + 1);
+                    return true;
+                }
+            }
+            if (eof) {
+                if (lineStart < filled && !completeLinesOnly) {
+                    // Última linha sem quebra no final
+                    setLine(filled, filled);
+                    return true;
+                }
+                return false;
+            }
+            scan = filled - lineStart;
+            fill();
+        }
+    }
+
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public int start() {
+        return start;
+    }
+
+    public int end() {
+        return end;
+    }
+
+    /**
+     * Posição no arquivo logo após a linha atual (inclusive a quebra)
+     */
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void setLine(int lineEnd, int next) {
+        start = lineStart;
+        end = lineEnd;
+        if (end > start && buffer[end - 1] == '\r') {
+            end--;
+        }
+        if (first) {
+            first = false;
+            if (end - start >= 3 && Arrays.equals(buffer, start, start + 3, UTF8_BOM, 0, 3)) {
+                start += 3;
+            }
+        }
+        position += next - lineStart;
+        lineStart = next;
+    }
+
+    private void fill() throws IOException {
+        if (lineStart > 0) {
+            System.arraycopy(buffer, lineStart, buffer, 0, filled - lineStart);
+            filled -= lineStart;
+            lineStart = 0;
+        } else if (filled == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = in.read(buffer, filled, buffer.length - filled);
+        if (read < 0) {
+            eof = true;
+        } else {
+            filled += read;
+        }
+    }
+}
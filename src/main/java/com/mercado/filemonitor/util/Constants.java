@@ -1,5 +1,8 @@
 package com.mercado.filemonitor.util;
 
+/**
+ * Posições do layout padrão das linhas (usadas quando {@code file.monitor.layout} não define campos)
+ */
 public class Constants {
 
     public static final int CAMPO_CODIGO = 6;
@@ -1,16 +1,22 @@
 package com.mercado.filemonitor.util;
 
-import static com.mercado.filemonitor.util.Constants.*;
-
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class FileValidator {
 
+  private static final LogSampler VALID_LOG_SAMPLER = new LogSampler(20, 1000);
+  private static final LogSampler INVALID_LOG_SAMPLER = new LogSampler(20, 1000);
+
+  private final RecordLayout recordLayout;
+
   public static class ValidationResult {
         public boolean valid;
         public List<String> errors = new ArrayList<>();
@@ -30,29 +36,39 @@ public class FileValidator {
     }
 
     public ValidationResult validateLine(String line, int lineNumber) {
-        ValidationResult result = new ValidationResult(lineNumber, line);
+        if (line == null) {
+            ValidationResult result = new ValidationResult(lineNumber, null);
+            result.addError("Linha vazia");
+            return result;
+        }
+        byte[] bytes = line.getBytes(recordLayout.getDecoder().getCharset());
+        return validateLine(bytes, 0, bytes.length, lineNumber);
+    }
 
-        if (line == null || line.trim().isEmpty()) {
+    /**
+     * Valida a linha [start, end) em bytes, com as mesmas posições usadas pelo parser
+     */
+    public ValidationResult validateLine(byte[] line, int start, int end, int lineNumber) {
+        ValidationResult result = new ValidationResult(lineNumber, recordLayout.decodeLine(line, start, end));
+
+        if (RecordLayout.isBlank(line, start, end)) {
             result.addError("Linha vazia");
             return result;
         }
 
         // Validar tamanho mínimo
-        if (line.length() < INICIO_CAMPO_OBS) {
-            result.addError("Linha deve ter pelo menos 97 caracteres. Atual: " + line.length());
+        if (end - start < recordLayout.getMinLineLength()) {
+            result.addError("Linha deve ter pelo menos " + recordLayout.getMinLineLength()
+                    + " caracteres. Atual: " + (end - start));
             return result;
         }
 
         try {
-            // Validar cada campo
-            validateCodigo(extractField(line, INICIO_CAMPO_CODIGO, CAMPO_CODIGO), result);
-            validateNome(extractField(line, INICIO_CAMPO_NOME, CAMPO_NOME), result);
-            validateCategoria(extractField(line, INICIO_CAMPO_CATEGORIA, CAMPO_CATEGORIA), result);
-            validateValor(extractField(line, INICIO_CAMPO_VALOR, CAMPO_VALOR), result);
-            validateTipoProduto(extractField(line, INICIO_CAMPO_TIPO_PRODUTO, CAMPO_TIPO_PRODUTO), result);
-            validateNumero(extractField(line, INICIO_CAMPO_DIAS_VALIDADE, CAMPO_DIAS_VALIDADE), result);
-            // Observações são opcionais, não validamos
-
+            // Validar cada campo do layout; campos não obrigatórios (ex.: observações) só são validados se preenchidos
+            for (RecordLayout.Field field : recordLayout.getFields()) {
+                int length = Math.max(0, Math.min(field.getOffset() + field.getLength(), end - start) - field.getOffset());
+                validateField(field, field.extract(line, start, end), length, result);
+            }
         } catch (Exception e) {
             result.addError("Erro geral na validação: " + e.getMessage());
         }
@@ -60,92 +76,66 @@ public class FileValidator {
         return result;
     }
 
-    private String extractField(String line, int start, int end) {
-        if (start >= line.length()) {
-            return "";
-        }
-        end = Math.min(end, line.length());
-        return line.substring(start, end);
-    }
-
-    private void validateCodigo(String codigo, ValidationResult result) {
-        if (codigo.trim().isEmpty()) {
-            result.addError("Código não pode estar vazio");
-        }
-        if (codigo.length() != CAMPO_CODIGO) {
-            result.addError("Código deve ter exatamente 10 caracteres");
-        }
-    }
-
-    private void validateNome(String nome, ValidationResult result) {
-        if (nome.trim().isEmpty()) {
-            result.addError("Nome não pode estar vazio");
-        }
-        if (nome.length() != CAMPO_NOME) {
-            result.addError("Nome deve ter exatamente 40 caracteres (com padding)");
-        }
-    }
-
-    private void validateCategoria(String categoria, ValidationResult result) {
-        if (categoria.trim().isEmpty()) {
-            result.addError("Categoria não pode estar vazia");
-        }
-        if (categoria.length() != CAMPO_CATEGORIA) {
-            result.addError("Categoria deve ter exatamente 10 caracteres");
-        }
-    }
-
-    private void validateValor(String valor, ValidationResult result) {
-        String valorLimpo = valor.trim();
-        if (valorLimpo.isEmpty()) {
-            result.addError("Valor não pode estar vazio");
-        }
-        if (valor.length() != CAMPO_VALOR) {
-            result.addError("Valor deve ter exatamente 16 caracteres");
+    private void validateField(RecordLayout.Field field, String value, int length, ValidationResult result) {
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            if (field.isRequired()) {
+                result.addError(field.getName() + " não pode estar vazio");
+            }
+            return;
         }
-        if (!valorLimpo.matches("\\d+")) {
-            result.addError("Valor deve conter apenas números");
+        if (field.isRequired() && length != field.getLength()) {
+            result.addError(field.getName() + " deve ter exatamente " + field.getLength() + " caracteres");
         }
-    }
 
-    private void validateTipoProduto(String tipoProduto, ValidationResult result) {
-        if (tipoProduto.trim().isEmpty()) {
-            result.addError("Tipo Produto não pode estar vazio");
-        }
-        if (tipoProduto.length() != CAMPO_TIPO_PRODUTO) {
-            result.addError("Tipo Produto deve ter exatamente 1 caracteres");
+        switch (field.getConverter()) {
+            case IMPLIED_2:
+                if (!isDigits(trimmed)) {
+                    result.addError(field.getName() + " deve conter apenas números");
+                }
+                break;
+            case PLAIN:
+                try {
+                    new BigDecimal(trimmed);
+                } catch (NumberFormatException e) {
+                    result.addError(field.getName() + " inválido");
+                }
+                break;
+            case INTEGER:
+                try {
+                    Integer.parseInt(trimmed);
+                } catch (NumberFormatException e) {
+                    result.addError(field.getName() + " inválido");
+                }
+                break;
+            default:
+                break;
         }
     }
 
-    private void validateNumero(String dias, ValidationResult result) {
-        if (!dias.trim().isEmpty()) {
-            try {
-                Integer.parseInt(dias);
-            } catch (NumberFormatException e) {
-                try {
-                    Double.parseDouble(dias);
-                } catch (NumberFormatException e2) {
-                    try {
-                        Long.parseLong(dias);
-                    } catch (NumberFormatException e3) {
-                        result.addError("Dias validade inválido");
-                    }
-                }
+    private boolean isDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
             }
-        }else{
-            result.addError("Dias validade não pode estar vazio");
         }
+        return true;
     }
 
+    /**
+     * Registra o resultado de uma linha. Chamado por linha, então é amostrado: linhas válidas
+     * só em debug e as inválidas em uma única mensagem, com o total omitido no período.
+     */
     public void logValidationResult(ValidationResult result) {
         if (result.valid) {
-            log.info("Linha {} válida", result.lineNumber);
-        } else {
-            log.error("Linha {} inválida:", result.lineNumber);
-            for (String error : result.errors) {
-                log.error("  - {}", error);
+            if (log.isDebugEnabled() && VALID_LOG_SAMPLER.tryAcquire()) {
+                log.debug("Linha {} válida", result.lineNumber);
             }
-            log.error("  Conteúdo: '{}'", result.lineContent);
+        } else if (INVALID_LOG_SAMPLER.tryAcquire()) {
+            log.warn("Linha {} inválida: {} | Conteúdo: '{}' ({} linha(s) inválida(s) omitida(s))",
+                    result.lineNumber, String.join("; ", result.errors), result.lineContent,
+                    INVALID_LOG_SAMPLER.drainSuppressed());
         }
     }
 }
@@ -0,0 +1,57 @@
+package com.mercado.filemonitor.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mercado.filemonitor.dto.OutboxEntry;
+import com.mercado.filemonitor.dto.PositionalRecord;
+import com.mercado.filemonitor.dto.ProdutoDTO;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * ObjectWriters criados uma vez por tipo de saída sobre o ObjectMapper compartilhado: o
+ * serializador raiz fica resolvido no writer e não é procurado de novo a cada produto.
+ */
+@Component
+public class JsonWriters {
+
+    private final ObjectWriter produto;
+    private final ObjectWriter positionalRecord;
+    private final ObjectWriter outboxEntry;
+    private final ObjectWriter pretty;
+
+    public JsonWriters(ObjectMapper objectMapper) {
+        this.produto = objectMapper.writerFor(ProdutoDTO.class);
+        this.positionalRecord = objectMapper.writerFor(PositionalRecord.class);
+        this.outboxEntry = objectMapper.writerFor(OutboxEntry.class);
+        this.pretty = objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    public ObjectWriter produto() {
+        return produto;
+    }
+
+    public ObjectWriter positionalRecord() {
+        return positionalRecord;
+    }
+
+    public ObjectWriter outboxEntry() {
+        return outboxEntry;
+    }
+
+    /**
+     * Gerador indentado, com o ObjectMapper compartilhado como codec para writeObject
+     */
+    public JsonGenerator createPrettyGenerator(OutputStream out) throws IOException {
+        return pretty.createGenerator(out);
+    }
+
+    public JsonGenerator createPrettyGenerator(Writer out) throws IOException {
+        return pretty.createGenerator(out);
+    }
+}
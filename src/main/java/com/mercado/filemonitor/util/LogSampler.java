@@ -0,0 +1,46 @@
+package com.mercado.filemonitor.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limita logs emitidos por linha/registro a {@code maxPerWindow} por janela de tempo.
+ * O que passa do limite é apenas contado, e o total omitido pode ser anexado à próxima
+ * mensagem liberada. Sem lock: no pior caso a janela libera algumas mensagens a mais.
+ */
+public class LogSampler {
+
+    private final int maxPerWindow;
+    private final long windowNanos;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger emitted = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public LogSampler(int maxPerWindow, long windowMillis) {
+        this.maxPerWindow = maxPerWindow;
+        this.windowNanos = windowMillis * 1_000_000L;
+    }
+
+    /**
+     * Indica se a mensagem pode ser registrada agora
+     */
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            emitted.set(0);
+        }
+        if (emitted.incrementAndGet() <= maxPerWindow) {
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Mensagens omitidas desde a última chamada
+     */
+    public long drainSuppressed() {
+        return suppressed.getAndSet(0);
+    }
+}
@@ -0,0 +1,156 @@
+package com.mercado.filemonitor.util;
+
+/**
+ * Mapa de chave long para valor int em endereçamento aberto (sondagem linear), sem boxing:
+ * dois arrays primitivos e nenhum objeto por entrada. Não é thread-safe; para leitura concorrente,
+ * monte o mapa por inteiro e publique a referência depois (ex.: campo volatile).
+ */
+public class LongIntHashMap {
+
+    public static final int NO_VALUE = -1;
+
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    // A chave 0 é o marcador de posição vazia, então fica fora da tabela
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public LongIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    private LongIntHashMap(LongIntHashMap source) {
+        keys = source.keys.clone();
+        values = source.values.clone();
+        mask = source.mask;
+        size = source.size;
+        resizeAt = source.resizeAt;
+        hasZeroKey = source.hasZeroKey;
+        zeroValue = source.zeroValue;
+    }
+
+    /**
+     * Cópia independente: clona os dois arrays, sem recalcular a posição de nenhuma chave
+     */
+    public LongIntHashMap copy() {
+        return new LongIntHashMap(this);
+    }
+
+    /**
+     * Associa o valor à chave e retorna o valor anterior, ou {@link #NO_VALUE}
+     */
+    public int put(long key, int value) {
+        if (key == EMPTY) {
+            int previous = hasZeroKey ? zeroValue : NO_VALUE;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+
+        int index = slot(key);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                int previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size >= resizeAt) {
+            rehash();
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Associa o valor apenas se a chave ainda não existe; retorna o valor já presente, ou {@link #NO_VALUE}
+     */
+    public int putIfAbsent(long key, int value) {
+        int current = get(key);
+        if (current != NO_VALUE) {
+            return current;
+        }
+        put(key, value);
+        return NO_VALUE;
+    }
+
+    /**
+     * Valor da chave, ou {@link #NO_VALUE} se ausente
+     */
+    public int get(long key) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : NO_VALUE;
+        }
+        int index = slot(key);
+        long current;
+        while ((current = keys[index]) != EMPTY) {
+            if (current == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != NO_VALUE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Bytes ocupados pelos arrays da tabela (estimativa para monitoramento)
+     */
+    public long memoryBytes() {
+        return (long) keys.length * Long.BYTES + (long) values.length * Integer.BYTES;
+    }
+
+    private int slot(long key) {
+        // Mistura os bits altos (ids sequenciais ficariam em posições vizinhas)
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY) {
+                int index = slot(key);
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(2, expectedSize) / LOAD_FACTOR) + 1;
+        return 1 << (32 - Integer.numberOfLeadingZeros(needed - 1));
+    }
+}
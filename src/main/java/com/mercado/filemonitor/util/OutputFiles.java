@@ -0,0 +1,110 @@
+package com.mercado.filemonitor.util;
+
+import com.mercado.filemonitor.config.FileMonitorConfig;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Escrita dos artefatos de saída: compressão opcional em streaming (gzip)
+ * e política de retenção dos últimos N artefatos por arquivo de origem.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutputFiles {
+
+    public static final String COMPRESSION_GZIP = "gzip";
+    private static final String GZIP_EXTENSION = ".gz";
+    private static final String TIMESTAMP_REGEX = "\\d{8}_\\d{6}";
+
+    private final FileMonitorConfig config;
+
+    public boolean isCompressionEnabled() {
+        return COMPRESSION_GZIP.equalsIgnoreCase(config.getOutputCompression());
+    }
+
+    /**
+     * Nome final do artefato, com a extensão de compressão quando habilitada
+     */
+    public Path resolve(Path outputDirectory, String fileName) {
+        return outputDirectory.resolve(isCompressionEnabled() ? fileName + GZIP_EXTENSION : fileName);
+    }
+
+    /**
+     * Abre o stream de escrita do artefato; o conteúdo é comprimido à medida que é escrito
+     */
+    public OutputStream open(Path path) throws IOException {
+        if (!isCompressionEnabled()) {
+            return new BufferedOutputStream(Files.newOutputStream(path), config.getOutputBufferSize());
+        }
+        return openGzip(path);
+    }
+
+    /**
+     * Stream gzip no nível configurado, independente de output-compression
+     */
+    public OutputStream openGzip(Path path) throws IOException {
+        int bufferSize = config.getOutputBufferSize();
+        OutputStream out = Files.newOutputStream(path);
+        try {
+            int level = config.getOutputCompressionLevel();
+            return new BufferedOutputStream(new GZIPOutputStream(out, bufferSize) {
+                {
+                    def.setLevel(level);
+                }
+            }, bufferSize);
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Mantém apenas os {@code output-retention} artefatos mais recentes com o prefixo e extensão informados
+     * (prefixo + timestamp yyyyMMdd_HHmmss + extensão, com ou sem .gz). Retenção 0 mantém todos.
+     */
+    public void applyRetention(Path outputDirectory, String prefix, String extension) {
+        int keep = config.getOutputRetention();
+        if (keep <= 0) {
+            return;
+        }
+
+        Pattern pattern = Pattern.compile(Pattern.quote(prefix) + TIMESTAMP_REGEX
+                + Pattern.quote(extension) + "(" + Pattern.quote(GZIP_EXTENSION) + ")?");
+        List<Path> artifacts = new ArrayList<>();
+        try (Stream<Path> files = Files.list(outputDirectory)) {
+            files.filter(file -> pattern.matcher(file.getFileName().toString()).matches())
+                    .forEach(artifacts::add);
+        } catch (IOException e) {
+            log.warn("Erro ao listar artefatos para retenção em {}: {}", outputDirectory, e.getMessage());
+            return;
+        }
+
+        if (artifacts.size() <= keep) {
+            return;
+        }
+
+        // O timestamp no nome ordena cronologicamente
+        artifacts.sort(Comparator.comparing((Path file) -> file.getFileName().toString()).reversed());
+        for (Path old : artifacts.subList(keep, artifacts.size())) {
+            try {
+                Files.deleteIfExists(old);
+                log.info("Artefato removido pela política de retenção: {}", old);
+            } catch (IOException e) {
+                log.warn("Erro ao remover artefato antigo {}: {}", old, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.mercado.filemonitor.util;
+
+/**
+ * Falha de um ou mais sinks ao receber os produtos de um arquivo
+ */
+public class ProdutoSinkException extends RuntimeException {
+
+    public ProdutoSinkException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,103 @@
+package com.mercado.filemonitor.util;
+
+import com.mercado.filemonitor.dto.ProdutoDTO;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Formato binário do snapshot de produtos (.psnap).
+ * <pre>
+ * cabeçalho : int MAGIC, short VERSION, long criadoEm (epoch ms), UTF arquivo de origem
+ * registros : [int tamanho][bytes do produto] ... na ordem do arquivo de origem
+ * índice    : [long id][long offset do registro] ... ordenado por id
+ * trailer   : long offset dos registros, long offset do índice, int quantidade, int MAGIC (últimos 24 bytes)
+ * </pre>
+ */
+public final class ProdutoSnapshotFormat {
+
+    public static final int MAGIC = 0x50534E50; // "PSNP"
+    public static final short VERSION = 1;
+    public static final int TRAILER_SIZE = 24;
+    public static final int INDEX_ENTRY_SIZE = 16;
+    public static final String EXTENSION = ".psnap";
+
+    private ProdutoSnapshotFormat() {
+    }
+
+    public static void writeProduto(DataOutput out, ProdutoDTO produto) throws IOException {
+        out.writeLong(produto.getId());
+        writeString(out, produto.getNome());
+        writeString(out, produto.getDescricao());
+        writeDecimal(out, produto.getPreco());
+        writeDecimal(out, produto.getPrecoPromocao());
+        writeString(out, produto.getCodigoBarras());
+        out.writeInt(produto.getEstoque() != null ? produto.getEstoque() : 0);
+        out.writeBoolean(Boolean.TRUE.equals(produto.getImportado()));
+        out.writeBoolean(Boolean.TRUE.equals(produto.getAtivo()));
+        writeString(out, produto.getUnidadeMedida());
+
+        ProdutoDTO.CategoriaDTO categoria = produto.getCategoria();
+        out.writeBoolean(categoria != null);
+        if (categoria != null) {
+            out.writeLong(categoria.getId());
+            writeString(out, categoria.getNome());
+        }
+        writeString(out, produto.getImagem());
+    }
+
+    public static ProdutoDTO readProduto(DataInput in) throws IOException {
+        ProdutoDTO.ProdutoDTOBuilder builder = ProdutoDTO.builder()
+                .id(in.readLong())
+                .nome(readString(in))
+                .descricao(readString(in))
+                .preco(readDecimal(in))
+                .precoPromocao(readDecimal(in))
+                .codigoBarras(readString(in))
+                .estoque(in.readInt())
+                .importado(in.readBoolean())
+                .ativo(in.readBoolean())
+                .unidadeMedida(readString(in));
+
+        if (in.readBoolean()) {
+            builder.categoria(ProdutoDTO.CategoriaDTO.builder()
+                    .id(in.readLong())
+                    .nome(readString(in))
+                    .build());
+        }
+        return builder.imagem(readString(in)).build();
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            out.writeInt(value.scale());
+            out.writeByte(unscaled.length);
+            out.write(unscaled);
+        }
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedByte()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+}
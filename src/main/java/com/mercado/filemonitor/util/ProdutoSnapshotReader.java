@@ -0,0 +1,168 @@
+package com.mercado.filemonitor.util;
+
+import com.mercado.filemonitor.dto.ProdutoDTO;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Leitura de um snapshot binário de produtos gerado pelo ProdutoSnapshotService.
+ * Ao abrir, carrega apenas o índice (id -> offset) em memória; cada consulta por id
+ * faz uma busca binária no índice e uma única leitura posicional do registro.
+ */
+public class ProdutoSnapshotReader implements Closeable {
+
+    private final FileChannel channel;
+    private final String sourceFileName;
+    private final Instant createdAt;
+    private final long recordsStart;
+    private final long indexOffset;
+    private final long[] ids;
+    private final long[] offsets;
+
+    private ProdutoSnapshotReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long size = channel.size();
+        if (size < ProdutoSnapshotFormat.TRAILER_SIZE) {
+            throw new IOException("Arquivo de snapshot inválido: tamanho " + size);
+        }
+
+        ByteBuffer trailer = readFully(size - ProdutoSnapshotFormat.TRAILER_SIZE, ProdutoSnapshotFormat.TRAILER_SIZE);
+        this.recordsStart = trailer.getLong();
+        this.indexOffset = trailer.getLong();
+        int count = trailer.getInt();
+        if (trailer.getInt() != ProdutoSnapshotFormat.MAGIC) {
+            throw new IOException("Arquivo não é um snapshot de produtos");
+        }
+
+        DataInputStream header = new DataInputStream(new ByteArrayInputStream(
+                readFully(0, (int) recordsStart).array()));
+        if (header.readInt() != ProdutoSnapshotFormat.MAGIC) {
+            throw new IOException("Cabeçalho de snapshot inválido");
+        }
+        short version = header.readShort();
+        if (version != ProdutoSnapshotFormat.VERSION) {
+            throw new IOException("Versão de snapshot não suportada: " + version);
+        }
+        this.createdAt = Instant.ofEpochMilli(header.readLong());
+        this.sourceFileName = header.readUTF();
+
+        this.ids = new long[count];
+        this.offsets = new long[count];
+        ByteBuffer index = readFully(indexOffset, count * ProdutoSnapshotFormat.INDEX_ENTRY_SIZE);
+        for (int i = 0; i < count; i++) {
+            ids[i] = index.getLong();
+            offsets[i] = index.getLong();
+        }
+    }
+
+    public static ProdutoSnapshotReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new ProdutoSnapshotReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public String getSourceFileName() {
+        return sourceFileName;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean contains(long id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    /**
+     * Busca um produto pelo id sem ler o restante do arquivo
+     */
+    public Optional<ProdutoDTO> find(long id) throws IOException {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(readAt(offsets[position]));
+    }
+
+    /**
+     * Percorre todos os produtos na ordem do arquivo de origem
+     */
+    public void forEach(Consumer<ProdutoDTO> consumer) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new RegionInputStream(), 64 * 1024));
+        long position = recordsStart;
+        while (position < indexOffset) {
+            int length = in.readInt();
+            consumer.accept(ProdutoSnapshotFormat.readProduto(in));
+            position += 4 + length;
+        }
+    }
+
+    private ProdutoDTO readAt(long offset) throws IOException {
+        int length = readFully(offset, 4).getInt();
+        ByteBuffer record = readFully(offset + 4, length);
+        return ProdutoSnapshotFormat.readProduto(new DataInputStream(new ByteArrayInputStream(record.array())));
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Fim inesperado do snapshot na posição " + position);
+            }
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Lê a região de registros com leituras posicionais, sem alterar a posição do canal
+     * (permite consultas concorrentes e não fecha o canal ao final)
+     */
+    private final class RegionInputStream extends InputStream {
+        private long position = recordsStart;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int toRead = (int) Math.min(length, indexOffset - position);
+            if (toRead <= 0) {
+                return -1;
+            }
+            int read = channel.read(ByteBuffer.wrap(buffer, offset, toRead), position);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+    }
+}
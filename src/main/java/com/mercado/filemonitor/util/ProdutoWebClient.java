@@ -1,29 +1,138 @@
 package com.mercado.filemonitor.util;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.mercado.filemonitor.config.ClientConfig;
+import com.mercado.filemonitor.config.ConfigReloadedEvent;
 import com.mercado.filemonitor.dto.ProdutoDTO;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 @Service
 @Slf4j
 public class ProdutoWebClient {
-    private final WebClient webClient;
+    // Tamanho aproximado de cada pedaço do corpo enviado (chunked transfer)
+    private static final int CHUNK_BYTES = 64 * 1024;
+
     private final ClientConfig config;
-    
-    public ProdutoWebClient(ClientConfig config) {
+    private final JsonWriters jsonWriters;
+    private final CircuitBreaker circuitBreaker;
+    private final WebClient.Builder webClientBuilder;
+
+    // Recriados quando a configuração do cliente muda; chamadas em andamento terminam no cliente antigo
+    private volatile WebClient webClient;
+    private volatile ConnectionProvider connectionProvider;
+
+    public ProdutoWebClient(ClientConfig config, WebClient.Builder webClientBuilder, JsonWriters jsonWriters) {
         this.config = config;
-        this.webClient = WebClient.builder()
+        this.jsonWriters = jsonWriters;
+        this.webClientBuilder = webClientBuilder;
+        this.circuitBreaker = new CircuitBreaker(config.getFailureThreshold(), config.getOpenDurationMs());
+        buildWebClient();
+    }
+
+    private void buildWebClient() {
+        ConnectionProvider previous = connectionProvider;
+        ConnectionProvider.Builder pool = ConnectionProvider.builder("produto-web-client");
+        if (config.getMaxConnections() > 0) {
+            pool.maxConnections(config.getMaxConnections());
+        }
+        connectionProvider = pool.build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.getConnectTimeoutMs())
+                .responseTimeout(Duration.ofMillis(config.getResponseTimeoutMs()));
+        webClient = webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .baseUrl(config.getHost() + ":" + config.getPort() + config.getPath() + config.getEndpoint())
                 .build();
+
+        if (previous != null) {
+            previous.disposeLater().subscribe();
+        }
     }
 
+    @EventListener
+    public void onConfigReloaded(ConfigReloadedEvent event) {
+        String remote = ConfigReloadedEvent.REMOTE;
+        if (event.changed(remote + "failureThreshold", remote + "openDurationMs")) {
+            circuitBreaker.reconfigure(config.getFailureThreshold(), config.getOpenDurationMs());
+        }
+        if (event.changed(remote + "host", remote + "port", remote + "path", remote + "endpoint",
+                remote + "connectTimeoutMs", remote + "responseTimeoutMs", remote + "maxConnections")) {
+            buildWebClient();
+            log.info("Cliente do import-txt recriado para {}:{}{}{}",
+                    config.getHost(), config.getPort(), config.getPath(), config.getEndpoint());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionProvider.dispose();
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Envia os produtos ao endpoint remoto. Com o circuito aberto falha imediatamente com
+     * {@link RemoteUnavailableException}, sem esperar o timeout de conexão.
+     */
     public void enviarProdutos(List<ProdutoDTO> listaProdutos) {
-        webClient.post()
+        enviarProdutos(listaProdutos, null);
+    }
+
+    /**
+     * Envia um lote com a chave de idempotência no header {@value BatchAcks#IDEMPOTENCY_HEADER},
+     * permitindo ao remoto descartar reenvios do mesmo lote
+     */
+    public void enviarProdutos(List<ProdutoDTO> listaProdutos, String idempotencyKey) {
+        if (!circuitBreaker.allowRequest()) {
+            throw new RemoteUnavailableException("Circuito aberto: endpoint remoto indisponível");
+        }
+
+        try {
+            post(listaProdutos, idempotencyKey);
+            circuitBreaker.recordSuccess();
+        } catch (WebClientResponseException e) {
+            // 4xx indica problema no payload, não indisponibilidade do remoto
+            if (e.getStatusCode().is5xxServerError()) {
+                circuitBreaker.recordFailure();
+            } else {
+                circuitBreaker.recordSuccess();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.recordFailure();
+            throw e;
+        }
+    }
+
+    private void post(List<ProdutoDTO> listaProdutos, String idempotencyKey) {
+        WebClient.RequestBodySpec request = webClient.post()
                 .uri(
                         config.getHost() + ":" +
                         config.getPort() +
@@ -31,13 +140,87 @@ public class ProdutoWebClient {
                         config.getEndpoint() +
                         config.getProdutos_endpoint()
                 )
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(listaProdutos)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        if (config.isGzipEnabled()) {
+            request.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        if (idempotencyKey != null) {
+            request.header(BatchAcks.IDEMPOTENCY_HEADER, idempotencyKey);
+        }
+
+        request.body(BodyInserters.fromDataBuffers(streamJson(listaProdutos, config.isGzipEnabled())))
                 .retrieve()
                 .bodyToMono(Map.class)
-                .doOnNext(response -> {
-                    System.out.println("Resposta: " + response);
-                })
+                .doOnNext(response -> log.debug("Resposta do import-txt: {} campo(s)", response.size()))
                 .block(); // bloqueia até receber a resposta (para chamadas síncronas)
     }
+
+    /**
+     * Serializa a lista em pedaços sob demanda: o JSON completo nunca fica inteiro em memória
+     * e, sem Content-Length, o corpo segue com Transfer-Encoding: chunked
+     */
+    private Flux<DataBuffer> streamJson(List<ProdutoDTO> produtos, boolean gzip) {
+        return Flux.generate(
+                () -> new JsonChunkWriter(jsonWriters.produto(), produtos, gzip),
+                (writer, sink) -> {
+                    try {
+                        byte[] chunk = writer.nextChunk();
+                        if (chunk == null) {
+                            sink.complete();
+                        } else {
+                            sink.next(DefaultDataBufferFactory.sharedInstance.wrap(chunk));
+                        }
+                    } catch (IOException e) {
+                        sink.error(e);
+                    }
+                    return writer;
+                },
+                JsonChunkWriter::close);
+    }
+
+    /**
+     * Escreve o array JSON de produtos (opcionalmente em gzip) e entrega os bytes produzidos em pedaços
+     */
+    private static final class JsonChunkWriter {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(CHUNK_BYTES + 8 * 1024);
+        private final Iterator<ProdutoDTO> produtos;
+        private final ObjectWriter writer;
+        private final JsonGenerator generator;
+        private boolean finished;
+
+        private JsonChunkWriter(ObjectWriter writer, List<ProdutoDTO> produtos, boolean gzip) throws IOException {
+            OutputStream out = gzip ? new GZIPOutputStream(buffer, 8 * 1024) : buffer;
+            this.produtos = produtos.iterator();
+            this.writer = writer;
+            this.generator = writer.createGenerator(out);
+            this.generator.writeStartArray();
+        }
+
+        private byte[] nextChunk() throws IOException {
+            if (finished) {
+                return null;
+            }
+            while (buffer.size() < CHUNK_BYTES && produtos.hasNext()) {
+                writer.writeValue(generator, produtos.next());
+                generator.flush();
+            }
+            if (!produtos.hasNext()) {
+                generator.writeEndArray();
+                generator.close(); // fecha o gzip e grava o trailer
+                finished = true;
+            }
+            byte[] chunk = buffer.toByteArray();
+            buffer.reset();
+            return chunk;
+        }
+
+        private void close() {
+            try {
+                generator.close();
+            } catch (IOException e) {
+                log.debug("Erro ao fechar gerador JSON: {}", e.getMessage());
+            }
+        }
+    }
 }
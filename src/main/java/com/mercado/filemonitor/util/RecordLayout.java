@@ -0,0 +1,328 @@
+package com.mercado.filemonitor.util;
+
+import com.mercado.filemonitor.config.LayoutConfig;
+import com.mercado.filemonitor.dto.PositionalRecord;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static com.mercado.filemonitor.util.Constants.*;
+
+/**
+ * Layout posicional compilado: cada campo já vem com o conversor e o setter de
+ * {@link PositionalRecord} resolvidos (MethodHandle), então o parse de uma linha
+ * percorre apenas um array, sem reflexão nem busca por nome.
+ * Offsets e tamanhos são em bytes; cada campo é decodificado direto dos bytes da linha.
+ */
+public final class RecordLayout {
+
+    public static final int DEFAULT_MIN_LINE_LENGTH = 97;
+
+    public enum Type { STRING, DECIMAL, INTEGER }
+
+    public enum Converter {
+        TRIM(Type.STRING, String.class),
+        RAW(Type.STRING, String.class),
+        POOLED(Type.STRING, String.class),
+        IMPLIED_2(Type.DECIMAL, BigDecimal.class),
+        PLAIN(Type.DECIMAL, BigDecimal.class),
+        INTEGER(Type.INTEGER, int.class);
+
+        private final Type type;
+        private final Class<?> valueClass;
+
+        Converter(Type type, Class<?> valueClass) {
+            this.type = type;
+            this.valueClass = valueClass;
+        }
+
+        static Converter defaultFor(Type type) {
+            switch (type) {
+                case DECIMAL:
+                    return IMPLIED_2;
+                case INTEGER:
+                    return INTEGER;
+                default:
+                    return TRIM;
+            }
+        }
+    }
+
+    /**
+     * Campo compilado; {@code end} é exclusivo
+     */
+    public static final class Field {
+
+        private final String name;
+        private final int offset;
+        private final int end;
+        private final Type type;
+        private final Converter converter;
+        private final boolean required;
+        private final MethodHandle setter;
+        private final ByteDecoder decoder;
+
+        private Field(String name, int offset, int length, Type type, Converter converter,
+                      boolean required, MethodHandle setter, ByteDecoder decoder) {
+            this.name = name;
+            this.offset = offset;
+            this.end = offset + length;
+            this.type = type;
+            this.converter = converter;
+            this.required = required;
+            this.setter = setter;
+            this.decoder = decoder;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public int getLength() {
+            return end - offset;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public Converter getConverter() {
+            return converter;
+        }
+
+        public boolean isRequired() {
+            return required;
+        }
+
+        /**
+         * Texto bruto do campo na linha [lineStart, lineEnd) (vazio se a linha termina antes dele)
+         */
+        public String extract(byte[] line, int lineStart, int lineEnd) {
+            int from = lineStart + offset;
+            return from >= lineEnd ? "" : decoder.decode(line, from, Math.min(lineStart + end, lineEnd));
+        }
+
+        /**
+         * Texto do campo sem espaços nas pontas; o preenchimento não chega a ser decodificado
+         */
+        public String extractTrimmed(byte[] line, int lineStart, int lineEnd) {
+            int from = lineStart + offset;
+            int to = Math.min(lineStart + end, lineEnd);
+            while (from < to && (line[from] & 0xFF) <= ' ') {
+                from++;
+            }
+            while (to > from && (line[to - 1] & 0xFF) <= ' ') {
+                to--;
+            }
+            return decoder.decode(line, from, to);
+        }
+
+        @Override
+        public String toString() {
+            return name + "[" + offset + "," + end + ")" + ":" + converter.name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, PositionalRecord.class, Object.class);
+
+    private final int minLineLength;
+    private final Field[] fields;
+    private final ByteDecoder decoder;
+    // Valores repetidos em milhões de linhas (categoria, tipo): uma instância por valor
+    private final StringPool pool = new StringPool(1024);
+
+    private RecordLayout(int minLineLength, Field[] fields, ByteDecoder decoder) {
+        this.minLineLength = minLineLength;
+        this.fields = fields;
+        this.decoder = decoder;
+    }
+
+    /**
+     * Layout padrão, equivalente às posições de {@link Constants}, com o tamanho mínimo de linha configurado
+     */
+    public static RecordLayout defaultLayout(int minLineLength, ByteDecoder decoder) {
+        List<LayoutConfig.Field> fields = new ArrayList<>();
+        fields.add(field("codigo", INICIO_CAMPO_CODIGO, CAMPO_CODIGO, "STRING", "trim", true));
+        fields.add(field("nome", INICIO_CAMPO_NOME, CAMPO_NOME, "STRING", "trim", true));
+        fields.add(field("categoria", INICIO_CAMPO_CATEGORIA, CAMPO_CATEGORIA, "STRING", "pooled", true));
+        fields.add(field("valor", INICIO_CAMPO_VALOR, CAMPO_VALOR, "DECIMAL", "implied-2", true));
+        fields.add(field("diasValidade", INICIO_CAMPO_DIAS_VALIDADE, CAMPO_DIAS_VALIDADE, "INTEGER", "integer", true));
+        fields.add(field("tipoProduto", INICIO_CAMPO_TIPO_PRODUTO, CAMPO_TIPO_PRODUTO, "STRING", "pooled", true));
+        fields.add(field("observacoes", INICIO_CAMPO_OBS, CAMPO_OBS, "STRING", "trim", false));
+        return compile(minLineLength, fields, decoder);
+    }
+
+    /**
+     * Valida as definições e resolve conversor e setter de cada campo.
+     * Erros de configuração falham na inicialização, nunca no meio de um arquivo.
+     */
+    public static RecordLayout compile(int minLineLength, List<LayoutConfig.Field> definitions, ByteDecoder decoder) {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        Field[] fields = new Field[definitions.size()];
+
+        for (int i = 0; i < fields.length; i++) {
+            LayoutConfig.Field definition = definitions.get(i);
+            String name = definition.getName();
+            if (name == null || name.isBlank()) {
+                throw new IllegalStateException("Campo " + (i + 1) + " do layout sem nome");
+            }
+            if (definition.getOffset() < 0 || definition.getLength() <= 0) {
+                throw new IllegalStateException("Campo '" + name + "' do layout com offset/tamanho inválido");
+            }
+
+            Type type = Type.valueOf(normalize(definition.getType()));
+            Converter converter = definition.getConverter() == null
+                    ? Converter.defaultFor(type)
+                    : Converter.valueOf(normalize(definition.getConverter()));
+            if (converter.type != type) {
+                throw new IllegalStateException("Conversor " + definition.getConverter()
+                        + " não se aplica ao tipo " + type + " do campo '" + name + "'");
+            }
+
+            MethodHandle setter;
+            String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            try {
+                setter = lookup.findVirtual(PositionalRecord.class, setterName,
+                        MethodType.methodType(void.class, converter.valueClass)).asType(SETTER_TYPE);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalStateException("Campo '" + name + "' do layout não existe em PositionalRecord como "
+                        + converter.valueClass.getSimpleName(), e);
+            }
+
+            fields[i] = new Field(name, definition.getOffset(), definition.getLength(), type, converter,
+                    definition.isRequired(), setter, decoder);
+        }
+        return new RecordLayout(minLineLength, fields, decoder);
+    }
+
+    public int getMinLineLength() {
+        return minLineLength;
+    }
+
+    public List<Field> getFields() {
+        return Collections.unmodifiableList(Arrays.asList(fields));
+    }
+
+    public ByteDecoder getDecoder() {
+        return decoder;
+    }
+
+    /**
+     * Linha inteira decodificada (para logs e mensagens de erro)
+     */
+    public String decodeLine(byte[] line, int start, int end) {
+        return decoder.decode(line, start, end);
+    }
+
+    public static boolean isBlank(byte[] line, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if ((line[i] & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Preenche um registro com todos os campos da linha [start, end) (o tamanho mínimo já deve ter sido validado)
+     */
+    public PositionalRecord parse(byte[] line, int start, int end) {
+        PositionalRecord record = new PositionalRecord();
+        for (Field field : fields) {
+            Object value = convert(field, line, start, end);
+            try {
+                field.setter.invokeExact(record, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return record;
+    }
+
+    private Object convert(Field field, byte[] line, int start, int end) {
+        switch (field.converter) {
+            case POOLED:
+                int from = start + field.offset;
+                return from >= end ? "" : pool.get(line, from, Math.min(start + field.end, end), decoder);
+            case RAW:
+                return field.extract(line, start, end);
+            case IMPLIED_2:
+                return parseImpliedDecimal(field.extractTrimmed(line, start, end));
+            case PLAIN:
+                String plain = field.extractTrimmed(line, start, end);
+                return plain.isEmpty() ? BigDecimal.ZERO : parseDecimal(plain);
+            case INTEGER:
+                String number = field.extractTrimmed(line, start, end);
+                try {
+                    return number.isEmpty() ? 0 : Integer.parseInt(number);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Valor inteiro inválido em " + field.name + ": " + number);
+                }
+            default:
+                return field.extractTrimmed(line, start, end);
+        }
+    }
+
+    /**
+     * Decimal com 2 casas implícitas quando não há ponto ("001234" = 12.34)
+     */
+    private static BigDecimal parseImpliedDecimal(String valueStr) {
+        if (valueStr.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+        // Remove espaços internos
+        String cleanValue = valueStr.replaceAll("\\s", "");
+        if (cleanValue.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+
+        // Se não tem ponto decimal, assume que os 2 últimos dígitos são decimais
+        if (!cleanValue.contains(".") && cleanValue.length() > 2) {
+            int len = cleanValue.length();
+            cleanValue = cleanValue.substring(0, len - 2) + "." + cleanValue.substring(len - 2);
+        }
+        return parseDecimal(cleanValue);
+    }
+
+    private static BigDecimal parseDecimal(String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor numérico inválido: " + value);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+    }
+
+    private static LayoutConfig.Field field(String name, int offset, int length, String type,
+                                            String converter, boolean required) {
+        LayoutConfig.Field field = new LayoutConfig.Field();
+        field.setName(name);
+        field.setOffset(offset);
+        field.setLength(length);
+        field.setType(type);
+        field.setConverter(converter);
+        field.setRequired(required);
+        return field;
+    }
+
+    @Override
+    public String toString() {
+        return "min " + minLineLength + " " + Arrays.toString(fields) + " " + decoder;
+    }
+}
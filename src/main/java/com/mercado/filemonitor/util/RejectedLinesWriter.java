@@ -0,0 +1,64 @@
+package com.mercado.filemonitor.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Grava as linhas rejeitadas no modo tolerante, uma por linha: número da linha, motivos do
+ * {@link FileValidator} e o conteúdo original (bytes intactos, no charset do arquivo de entrada).
+ * O arquivo só é criado na primeira rejeição.
+ */
+public class RejectedLinesWriter implements Closeable {
+
+    private static final byte SEPARATOR = '\t';
+
+    private final Path path;
+    private final OutputFiles outputFiles;
+    private final Charset charset;
+    private OutputStream out;
+    private int count;
+
+    public RejectedLinesWriter(Path path, OutputFiles outputFiles, Charset charset) {
+        this.path = path;
+        this.outputFiles = outputFiles;
+        this.charset = charset;
+    }
+
+    public void write(int lineNumber, List<String> reasons, byte[] line, int start, int end) throws IOException {
+        if (out == null) {
+            Files.createDirectories(path.getParent());
+            out = outputFiles.open(path);
+            out.write("# linha\tmotivos\tconteudo\n".getBytes(charset));
+        }
+        out.write(Integer.toString(lineNumber).getBytes(charset));
+        out.write(SEPARATOR);
+        out.write(String.join(" | ", reasons).replace('\t', ' ').getBytes(charset));
+        out.write(SEPARATOR);
+        out.write(line, start, end - start);
+        out.write('\n');
+        count++;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Caminho do arquivo gerado, ou null se nenhuma linha foi rejeitada
+     */
+    public Path getPath() {
+        return out == null ? null : path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+    }
+}
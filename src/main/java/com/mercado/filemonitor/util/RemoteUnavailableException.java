@@ -0,0 +1,11 @@
+package com.mercado.filemonitor.util;
+
+/**
+ * Lançada quando o circuito da chamada remota está aberto e o envio é recusado sem tentar a conexão
+ */
+public class RemoteUnavailableException extends RuntimeException {
+
+    public RemoteUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,60 @@
+package com.mercado.filemonitor.util;
+
+import java.util.Arrays;
+
+/**
+ * Cache de strings de baixa cardinalidade (categoria, tipo de produto) extraídas das linhas.
+ * Compara direto nos bytes da linha, então em caso de acerto nada é decodificado nem alocado.
+ * A tabela tem tamanho fixo e colisões apenas substituem a entrada; o acesso concorrente
+ * sem lock é seguro porque as entradas são imutáveis e a escrita da referência é atômica.
+ */
+public class StringPool {
+
+    private static final class Entry {
+        private final byte[] key;
+        private final String value;
+
+        private Entry(byte[] key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final Entry[] table;
+    private final int mask;
+
+    public StringPool(int capacity) {
+        int size = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(2, capacity) - 1));
+        this.table = new Entry[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Retorna a string canônica do trecho [start, end) da linha, sem espaços nas pontas
+     */
+    public String get(byte[] line, int start, int end, ByteDecoder decoder) {
+        while (start < end && (line[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (line[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        if (end <= start) {
+            return "";
+        }
+
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + line[i];
+        }
+        int index = (hash ^ (hash >>> 16)) & mask;
+
+        Entry cached = table[index];
+        if (cached != null && Arrays.equals(cached.key, 0, cached.key.length, line, start, end)) {
+            return cached.value;
+        }
+        String value = decoder.decode(line, start, end);
+        table[index] = new Entry(Arrays.copyOfRange(line, start, end), value);
+        return value;
+    }
+}